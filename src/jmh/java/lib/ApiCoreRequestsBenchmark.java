@@ -0,0 +1,49 @@
+package lib;
+
+import io.restassured.response.Response;
+import lib.emulator.PlaygroundEmulator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full round trips through {@link ApiCoreRequests}, its filters and the shared connection pool,
+ * against {@link PlaygroundEmulator} on loopback so the numbers are mostly client overhead.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ApiCoreRequestsBenchmark {
+
+    private final ApiCoreRequests apiCoreRequests = new ApiCoreRequests();
+    private final Map<String, String> authData = new HashMap<>();
+    private String userUrl;
+    private String loginUrl;
+
+    @Setup
+    public void setUp() {
+        String baseUrl = PlaygroundEmulator.start().getBaseUrl();
+        userUrl = baseUrl + "/api/user/";
+        loginUrl = baseUrl + "/api/user/login";
+        authData.put("email", "vinkotov@example.com");
+        authData.put("password", "1234");
+    }
+
+    @Benchmark
+    public Response makeGetUserDetailsRequestOnlyWithUserId() {
+        return apiCoreRequests.makeGetUserDetailsRequestOnlyWithUserId(userUrl, 2);
+    }
+
+    @Benchmark
+    public Response makePostRequest() {
+        return apiCoreRequests.makePostRequest(loginUrl, authData);
+    }
+}
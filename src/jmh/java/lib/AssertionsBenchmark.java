@@ -0,0 +1,69 @@
+package lib;
+
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.response.Response;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@code OnNewResponse} benchmarks parse the body, like the first assertion on a response
+ * does; subtract {@link #buildResponse} to get the assertion alone. The {@code OnParsedResponse}
+ * ones hit the document already parsed for that response.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class AssertionsBenchmark {
+
+    private static final String USER_BODY = "{\"id\":\"2\",\"username\":\"Vitaliy\",\"email\":\"vinkotov@example.com\","
+            + "\"firstName\":\"Vitalii\",\"lastName\":\"Kotov\"}";
+    private static final String[] EXPECTED_FIELDS = {"username", "firstName", "lastName", "email"};
+
+    private Response parsedResponse;
+
+    @Setup
+    public void setUp() {
+        parsedResponse = buildResponse();
+        JsonDocument.of(parsedResponse);
+    }
+
+    @Benchmark
+    public Response buildResponse() {
+        return new ResponseBuilder()
+                .setStatusCode(200)
+                .setContentType("application/json")
+                .setBody(USER_BODY)
+                .build();
+    }
+
+    @Benchmark
+    public Response assertJsonByNameOnNewResponse() {
+        Response response = buildResponse();
+        Assertions.assertJsonByName(response, "username", "Vitaliy");
+        return response;
+    }
+
+    @Benchmark
+    public Response assertJsonHasFieldsOnNewResponse() {
+        Response response = buildResponse();
+        Assertions.assertJsonHasFields(response, EXPECTED_FIELDS);
+        return response;
+    }
+
+    @Benchmark
+    public void assertJsonByNameOnParsedResponse() {
+        Assertions.assertJsonByName(parsedResponse, "username", "Vitaliy");
+    }
+
+    @Benchmark
+    public void assertJsonHasFieldsOnParsedResponse() {
+        Assertions.assertJsonHasFields(parsedResponse, EXPECTED_FIELDS);
+    }
+}
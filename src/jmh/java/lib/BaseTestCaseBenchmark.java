@@ -0,0 +1,56 @@
+package lib;
+
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.http.Cookie;
+import io.restassured.http.Cookies;
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
+import io.restassured.response.Response;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class BaseTestCaseBenchmark extends BaseTestCase {
+
+    private Response loginResponse;
+
+    @Setup
+    public void setUp() {
+        String authSid = "e9e5a0b2c4d1f3a6b8c7d9e0f1a2b3c4";
+        loginResponse = new ResponseBuilder()
+                .setStatusCode(200)
+                .setHeaders(new Headers(
+                        new Header("Date", "Sun, 18 Oct 2026 09:00:00 GMT"),
+                        new Header("Content-Type", "application/json"),
+                        new Header("Content-Length", "15"),
+                        new Header("Connection", "keep-alive"),
+                        new Header("Keep-Alive", "timeout=10"),
+                        new Header("Server", "Apache"),
+                        new Header("x-csrf-token", "5f8a1c3e7b9d2f4a6c8e0b1d3f5a7c9e"),
+                        new Header("Set-Cookie", "auth_sid=" + authSid + "; path=/"),
+                        new Header("Cache-Control", "max-age=0")))
+                .setCookies(new Cookies(new Cookie.Builder("auth_sid", authSid).setPath("/").build()))
+                .setContentType("application/json")
+                .setBody("{\"user_id\":2}")
+                .build();
+    }
+
+    @Benchmark
+    public String getCookie() {
+        return this.getCookie(loginResponse, "auth_sid");
+    }
+
+    @Benchmark
+    public String getHeader() {
+        return this.getHeader(loginResponse, "x-csrf-token");
+    }
+}
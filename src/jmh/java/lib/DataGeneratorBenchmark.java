@@ -0,0 +1,37 @@
+package lib;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class DataGeneratorBenchmark {
+
+    private final Map<String, String> noneDefaultValues = new HashMap<>();
+
+    @Setup
+    public void setUp() {
+        noneDefaultValues.put("email", "vinkotov@example.com");
+        noneDefaultValues.put("username", "a");
+    }
+
+    @Benchmark
+    public Map<String, String> getRegistrationData() {
+        return DataGenerator.getRegistrationData();
+    }
+
+    @Benchmark
+    public Map<String, String> getRegistrationDataWithNoneDefaultValues() {
+        return DataGenerator.getRegistrationData(noneDefaultValues);
+    }
+}
@@ -0,0 +1,36 @@
+package lib;
+
+import lib.emulator.PlaygroundEmulator;
+
+/**
+ * Where the tests send their requests. {@code api.baseUrl} points the suite at another
+ * playground, {@code api.emulator=true} starts {@link PlaygroundEmulator} inside the test
+ * JVM and uses it instead, so the suite runs without network access.
+ */
+public final class ApiConfig {
+
+    private static final String DEFAULT_BASE_URL = "https://playground.learnqa.ru";
+    private static final boolean EMULATED = Boolean.getBoolean("api.emulator");
+    private static final String BASE_URL = EMULATED
+            ? PlaygroundEmulator.start().getBaseUrl()
+            : stripTrailingSlash(System.getProperty("api.baseUrl", DEFAULT_BASE_URL));
+
+    private ApiConfig() {
+    }
+
+    public static String baseUrl() {
+        return BASE_URL;
+    }
+
+    public static String url(String path) {
+        return BASE_URL + path;
+    }
+
+    public static boolean isEmulated() {
+        return EMULATED;
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
@@ -1,98 +1,102 @@
 package lib;
 
-import io.qameta.allure.Step;
-import io.qameta.allure.restassured.AllureRestAssured;
+import io.restassured.builder.RequestSpecBuilder;
 import io.restassured.http.Header;
 import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import lib.filters.AllureCaptureFilter;
+import lib.filters.ApiFilters;
 
 import java.util.Map;
 
 import static io.restassured.RestAssured.given;
+import static lib.allure.AllureSteps.parameter;
+import static lib.allure.AllureSteps.step;
 
 public class ApiCoreRequests {
 
-    @Step("Make a GET-request with token and auth cookie")
+    static {
+        ApiFilters.install();
+    }
+
+    private static final RequestSpecification SPEC = new RequestSpecBuilder()
+            .setConfig(HttpClientPool.config())
+            .addFilter(new AllureCaptureFilter())
+            .build();
+
     public Response makeGetRequest(String url, String token, String cookie) {
-        return given()
-                .filter(new AllureRestAssured())
-                .header(new Header("x-csrf-token", token))
-                .cookie("auth_sid", cookie)
-                .get(url)
-                .andReturn();
+        return step("Make a GET-request with token and auth cookie", () -> given(SPEC)
+                        .header(new Header("x-csrf-token", token))
+                        .cookie("auth_sid", cookie)
+                        .get(url)
+                        .andReturn(),
+                parameter("url", url), parameter("token", token), parameter("cookie", cookie));
     }
 
-    @Step("Make a GET-request with auth cookie only")
     public Response makeGetRequestWithCookie(String url, String cookie) {
-        return given()
-                .filter(new AllureRestAssured())
-                .cookie("auth_sid", cookie)
-                .get(url)
-                .andReturn();
+        return step("Make a GET-request with auth cookie only", () -> given(SPEC)
+                        .cookie("auth_sid", cookie)
+                        .get(url)
+                        .andReturn(),
+                parameter("url", url), parameter("cookie", cookie));
     }
 
-    @Step("Make a GET-request with token only")
     public Response makeGetRequestWithToken(String url, String token) {
-        return given()
-                .filter(new AllureRestAssured())
-                .header(new Header("x-csrf-token", token))
-                .get(url)
-                .andReturn();
+        return step("Make a GET-request with token only", () -> given(SPEC)
+                        .header(new Header("x-csrf-token", token))
+                        .get(url)
+                        .andReturn(),
+                parameter("url", url), parameter("token", token));
     }
 
-    @Step("Make a POST-request")
     public Response makePostRequest(String url, Map<String, String> authData) {
-        return given()
-                .filter(new AllureRestAssured())
-                .body(authData)
-                .post(url)
-                .andReturn();
+        return step("Make a POST-request", () -> given(SPEC)
+                        .body(authData)
+                        .post(url)
+                        .andReturn(),
+                parameter("url", url), parameter("authData", authData));
     }
 
-    @Step("Try to get user details by not authorized user only with userId")
     public Response makeGetUserDetailsRequestOnlyWithUserId(String url, int userId) {
-        return given()
-                .filter(new AllureRestAssured())
-                .get(url + userId)
-                .andReturn();
+        return step("Try to get user details by not authorized user only with userId", () -> given(SPEC)
+                        .get(url + userId)
+                        .andReturn(),
+                parameter("url", url), parameter("userId", userId));
     }
 
-    @Step("Try to get user details by authorized user and with userId")
     public Response makeGetUserDetailsRequest(String url, String header, String cookie, int userId) {
-        return given()
-                .filter(new AllureRestAssured())
-                .header("x-csrf-token", header)
-                .cookie("auth_sid", cookie)
-                .get(url + userId)
-                .andReturn();
+        return step("Try to get user details by authorized user and with userId", () -> given(SPEC)
+                        .header("x-csrf-token", header)
+                        .cookie("auth_sid", cookie)
+                        .get(url + userId)
+                        .andReturn(),
+                parameter("url", url), parameter("header", header), parameter("cookie", cookie), parameter("userId", userId));
     }
 
-    @Step("Make a PUT-request to edit user details by authorized user")
     public Response makeAnEditUserDetailsRequest(String url, String header, String cookie, Map<String, String> editData, int userId) {
-        return given()
-                .filter(new AllureRestAssured())
-                .header("x-csrf-token", header)
-                .cookie("auth_sid", cookie)
-                .body(editData)
-                .put(url + userId)
-                .andReturn();
+        return step("Make a PUT-request to edit user details by authorized user", () -> given(SPEC)
+                        .header("x-csrf-token", header)
+                        .cookie("auth_sid", cookie)
+                        .body(editData)
+                        .put(url + userId)
+                        .andReturn(),
+                parameter("url", url), parameter("header", header), parameter("cookie", cookie), parameter("editData", editData), parameter("userId", userId));
     }
 
-    @Step("Make a PUT-request to edit user details by not authorized user")
     public Response makeAnEditUserDetailsRequestByNotAuthorizedUser(String url, Map<String, String> editData, int userId) {
-        return given()
-                .filter(new AllureRestAssured())
-                .body(editData)
-                .put(url + userId)
-                .andReturn();
+        return step("Make a PUT-request to edit user details by not authorized user", () -> given(SPEC)
+                        .body(editData)
+                        .put(url + userId)
+                        .andReturn(),
+                parameter("url", url), parameter("editData", editData), parameter("userId", userId));
     }
 
-    @Step("Delete user by id, must be logged in as this user")
     public Response makeDeleteUserRequest(String url, String header, String cookie, int userId) {
-        return given()
-                .filter(new AllureRestAssured())
-                .header("x-csrf-token", header)
-                .cookie("auth_sid", cookie)
-                .delete(url + userId)
-                .andReturn();
+        return step("Delete user by id, must be logged in as this user", () -> given(SPEC)
+                        .header("x-csrf-token", header)
+                        .cookie("auth_sid", cookie)
+                        .delete(url + userId)
+                        .andReturn(),
+                parameter("url", url), parameter("header", header), parameter("cookie", cookie), parameter("userId", userId));
     }
 }
@@ -2,23 +2,19 @@ package lib;
 
 import io.restassured.response.Response;
 
-import static org.hamcrest.Matchers.hasKey;
-import static org.hamcrest.Matchers.not;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class Assertions {
 
     public static void assertJsonByName(Response Response, String name, int expectedValue) {
-        Response.then().assertThat().body("$", hasKey(name));
-
-        int value = Response.jsonPath().getInt(name);
+        int value = JsonDocument.of(Response).getInt(name);
         assertEquals(expectedValue, value, "Json value is not equal to expected value");
     }
 
     public static void assertJsonByName(Response Response, String name, String expectedValue) {
-        Response.then().assertThat().body("$", hasKey(name));
-
-        String value = Response.jsonPath().getString(name);
+        String value = JsonDocument.of(Response).getString(name);
         assertEquals(expectedValue, value, "Json value is not equal to expected value");
     }
 
@@ -39,16 +35,17 @@ public class Assertions {
     }
 
     public static void assertJsonHasField(Response Response, String expectedFieldName) {
-        Response.then().assertThat().body("$", hasKey(expectedFieldName));
+        assertTrue(JsonDocument.of(Response).has(expectedFieldName), "Response JSON doesn't have field " + expectedFieldName);
     }
 
     public static void assertJsonHasNotField(Response Response, String unexpectedFieldName) {
-        Response.then().assertThat().body("$", not(hasKey(unexpectedFieldName)));
+        assertFalse(JsonDocument.of(Response).has(unexpectedFieldName), "Response JSON shouldn't have field " + unexpectedFieldName);
     }
 
     public static void assertJsonHasFields(Response Response, String[] expectedFieldNames) {
+        JsonDocument document = JsonDocument.of(Response);
         for (String expectedFieldName : expectedFieldNames) {
-            Assertions.assertJsonHasField(Response, expectedFieldName);
+            assertTrue(document.has(expectedFieldName), "Response JSON doesn't have field " + expectedFieldName);
         }
     }
 }
@@ -0,0 +1,96 @@
+package lib;
+
+import io.qameta.allure.Allure;
+import io.restassured.response.Response;
+import lib.allure.AllureTestContext;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking counterpart of {@link ApiCoreRequests}. Calls run on a bounded pool
+ * ({@code api.async.threads}, {@code api.async.queueSize}); when the queue is full the
+ * caller runs the request itself instead of failing. Allure steps made on the pool
+ * are attached to the test that started them, and to no test when none was running.
+ */
+public class AsyncApiCoreRequests {
+
+    private static final int THREADS = Integer.getInteger("api.async.threads", 16);
+    private static final int QUEUE_SIZE = Integer.getInteger("api.async.queueSize", 256);
+    private static final ExecutorService EXECUTOR = createExecutor();
+
+    private final ApiCoreRequests apiCoreRequests;
+
+    public AsyncApiCoreRequests() {
+        this(new ApiCoreRequests());
+    }
+
+    public AsyncApiCoreRequests(ApiCoreRequests apiCoreRequests) {
+        this.apiCoreRequests = apiCoreRequests;
+    }
+
+    public static ExecutorService executor() {
+        return EXECUTOR;
+    }
+
+    public static <T> CompletableFuture<T> supply(Supplier<T> request) {
+        Optional<String> testCase = Allure.getLifecycle().getCurrentTestCase();
+        return CompletableFuture.supplyAsync(() -> AllureTestContext.callIn(testCase, request), EXECUTOR);
+    }
+
+    public CompletableFuture<Response> makeGetRequest(String url, String token, String cookie) {
+        return supply(() -> apiCoreRequests.makeGetRequest(url, token, cookie));
+    }
+
+    public CompletableFuture<Response> makeGetRequestWithCookie(String url, String cookie) {
+        return supply(() -> apiCoreRequests.makeGetRequestWithCookie(url, cookie));
+    }
+
+    public CompletableFuture<Response> makeGetRequestWithToken(String url, String token) {
+        return supply(() -> apiCoreRequests.makeGetRequestWithToken(url, token));
+    }
+
+    public CompletableFuture<Response> makePostRequest(String url, Map<String, String> authData) {
+        return supply(() -> apiCoreRequests.makePostRequest(url, authData));
+    }
+
+    public CompletableFuture<Response> makeGetUserDetailsRequestOnlyWithUserId(String url, int userId) {
+        return supply(() -> apiCoreRequests.makeGetUserDetailsRequestOnlyWithUserId(url, userId));
+    }
+
+    public CompletableFuture<Response> makeGetUserDetailsRequest(String url, String header, String cookie, int userId) {
+        return supply(() -> apiCoreRequests.makeGetUserDetailsRequest(url, header, cookie, userId));
+    }
+
+    public CompletableFuture<Response> makeAnEditUserDetailsRequest(String url, String header, String cookie, Map<String, String> editData, int userId) {
+        return supply(() -> apiCoreRequests.makeAnEditUserDetailsRequest(url, header, cookie, editData, userId));
+    }
+
+    public CompletableFuture<Response> makeAnEditUserDetailsRequestByNotAuthorizedUser(String url, Map<String, String> editData, int userId) {
+        return supply(() -> apiCoreRequests.makeAnEditUserDetailsRequestByNotAuthorizedUser(url, editData, userId));
+    }
+
+    public CompletableFuture<Response> makeDeleteUserRequest(String url, String header, String cookie, int userId) {
+        return supply(() -> apiCoreRequests.makeDeleteUserRequest(url, header, cookie, userId));
+    }
+
+    private static ExecutorService createExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                THREADS,
+                THREADS,
+                30,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_SIZE),
+                new DaemonThreadFactory("api-async-"),
+                new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
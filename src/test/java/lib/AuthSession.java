@@ -0,0 +1,32 @@
+package lib;
+
+public final class AuthSession {
+
+    private final String cookie;
+    private final String header;
+    private final int userId;
+    private final long expiresAt;
+
+    public AuthSession(String cookie, String header, int userId, long expiresAt) {
+        this.cookie = cookie;
+        this.header = header;
+        this.userId = userId;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getCookie() {
+        return cookie;
+    }
+
+    public String getHeader() {
+        return header;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public boolean isExpired(long now) {
+        return now - expiresAt >= 0;
+    }
+}
@@ -4,8 +4,8 @@ import io.restassured.http.Headers;
 import io.restassured.response.Response;
 
 import java.util.Map;
+import java.util.function.Function;
 
-import static org.hamcrest.Matchers.hasKey;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class BaseTestCase {
@@ -25,7 +25,41 @@ public class BaseTestCase {
     }
 
     protected int getIntFromJson(Response Response, String name) {
-        Response.then().assertThat().body("$", hasKey(name));
-        return Response.jsonPath().getInt(name);
+        return JsonDocument.of(Response).getInt(name);
+    }
+
+    protected AuthSession loginAs(String email, String password) {
+        return SessionCache.get(email, password, authData -> {
+            Response responseGetAuth = new ApiCoreRequests()
+                    .makePostRequest(ApiConfig.url("/api/user/login"), authData);
+
+            return new AuthSession(
+                    this.getCookie(responseGetAuth, "auth_sid"),
+                    this.getHeader(responseGetAuth, "x-csrf-token"),
+                    this.getIntFromJson(responseGetAuth, "user_id"),
+                    SessionCache.expiresAt()
+            );
+        });
+    }
+
+    /** Makes {@code request} with the shared session of the account, as is, rejected or not. */
+    protected Response withSession(String email, String password, Function<AuthSession, Response> request) {
+        return this.withSession(email, password, false, request);
+    }
+
+    /**
+     * Makes {@code request} with the shared session of the account. With {@code retryOnReject},
+     * for a request that must be authorized, a 401, 403 or missing token answer drops the session
+     * and the request is made once more after a new login. Negative tests leave it off, so the
+     * answer they expect doesn't cost a login or the session other tests are using.
+     */
+    protected Response withSession(String email, String password, boolean retryOnReject, Function<AuthSession, Response> request) {
+        AuthSession session = this.loginAs(email, password);
+        Response Response = request.apply(session);
+        if (retryOnReject && SessionCache.isRejected(Response)) {
+            SessionCache.invalidate(email, password, session);
+            Response = request.apply(this.loginAs(email, password));
+        }
+        return Response;
     }
 }
@@ -0,0 +1,42 @@
+package lib;
+
+import org.apache.http.conn.DnsResolver;
+import org.apache.http.impl.conn.SystemDefaultDnsResolver;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+public class CachingDnsResolver implements DnsResolver {
+
+    private final DnsResolver delegate = SystemDefaultDnsResolver.INSTANCE;
+    private final ConcurrentMap<String, Entry> cache = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+
+    public CachingDnsResolver(long ttl, TimeUnit unit) {
+        this.ttlNanos = unit.toNanos(ttl);
+    }
+
+    @Override
+    public InetAddress[] resolve(String host) throws UnknownHostException {
+        long now = System.nanoTime();
+        Entry entry = cache.get(host);
+        if (entry == null || now - entry.resolvedAt > ttlNanos) {
+            entry = new Entry(delegate.resolve(host), now);
+            cache.put(host, entry);
+        }
+        return entry.addresses.clone();
+    }
+
+    private static final class Entry {
+        private final InetAddress[] addresses;
+        private final long resolvedAt;
+
+        private Entry(InetAddress[] addresses, long resolvedAt) {
+            this.addresses = addresses;
+            this.resolvedAt = resolvedAt;
+        }
+    }
+}
@@ -1,14 +1,61 @@
 package lib;
 
+import lib.filters.CassetteFilter;
+import lib.metrics.MetricsReport;
+
+import java.lang.management.ManagementFactory;
 import java.text.SimpleDateFormat;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
+/**
+ * Unique values come from one atomic counter combined with a run id and a fork id,
+ * so threads never collide and two JVMs never share a prefix. By default the run id
+ * is the start time and the fork id is the process id. Set {@code api.data.seed}
+ * (and {@code api.data.fork} per forked JVM) to get the same sequence on every run.
+ * <p>
+ * A seeded prefix is only fully fixed under the emulator or cassette replay. A live server
+ * keeps the users of earlier runs, so there the prefix also gets a random salt, and a second
+ * run with the same seed doesn't fail on "already exists". The seed, salt and prefix are
+ * written to {@code data-generator.json}; pass the salt back as {@code api.data.salt}
+ * to repeat a run.
+ */
 public class DataGenerator {
 
+    private static final String SEED = System.getProperty("api.data.seed");
+    private static final long MIX = SEED != null ? SEED.hashCode() : System.nanoTime();
+    private static final String SALT = SEED != null ? createSalt() : null;
+    private static final String PREFIX = createPrefix();
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    static {
+        MetricsReport.register("data-generator.json", DataGenerator::report);
+    }
+
     public static String getRandomEmail() {
-        String timestamp = new SimpleDateFormat("yyyyMMddHHmmss").format(new java.util.Date());
-        return "learnqa" + timestamp + "@example.com";
+        return getEmail(SEQUENCE.getAndIncrement());
+    }
+
+    public static String getRandomUsername() {
+        return getUsername(SEQUENCE.getAndIncrement());
+    }
+
+    public static String getRandomName() {
+        return getName(SEQUENCE.getAndIncrement());
+    }
+
+    public static String getRunPrefix() {
+        return "learnqa" + PREFIX;
+    }
+
+    /** The salt of a seeded run, empty when the prefix is fully deterministic, null without a seed. */
+    public static String getSalt() {
+        return SALT;
     }
 
     public static Map<String, String> getRegistrationData() {
@@ -36,4 +83,82 @@ public class DataGenerator {
         }
         return userData;
     }
+
+    public static Map<String, String> getUniqueRegistrationData() {
+        return getUniqueRegistrationData(SEQUENCE.getAndIncrement());
+    }
+
+    public static Stream<Map<String, String>> getRegistrationDataStream(long count) {
+        // The whole block is reserved at once, so the stream can run in parallel without touching the counter
+        long first = SEQUENCE.getAndAdd(count);
+        return LongStream.range(first, first + count).mapToObj(DataGenerator::getUniqueRegistrationData);
+    }
+
+    private static Map<String, String> getUniqueRegistrationData(long sequence) {
+        Map<String, String> data = new HashMap<>();
+        data.put("email", getEmail(sequence));
+        data.put("password", "123");
+        data.put("username", getUsername(sequence));
+        data.put("firstName", getName(sequence));
+        data.put("lastName", getName(~sequence));
+
+        return data;
+    }
+
+    private static String getEmail(long sequence) {
+        return getRunPrefix() + Long.toString(sequence, 36) + "@example.com";
+    }
+
+    private static String getUsername(long sequence) {
+        return getRunPrefix() + Long.toString(sequence, 36);
+    }
+
+    private static String getName(long sequence) {
+        long bits = mix(sequence ^ MIX);
+        char[] name = new char[8];
+        name[0] = (char) ('A' + Long.remainderUnsigned(bits, 26));
+        for (int i = 1; i < name.length; i++) {
+            bits = Long.divideUnsigned(bits, 26);
+            name[i] = (char) ('a' + Long.remainderUnsigned(bits, 26));
+        }
+        return new String(name);
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+
+    private static String createSalt() {
+        String salt = System.getProperty("api.data.salt");
+        if (salt != null || ApiConfig.isEmulated() || CassetteFilter.isReplaying()) {
+            // Nothing outlives the run there, so the seed alone can fix the prefix
+            return salt != null ? salt : "";
+        }
+        // Six base 36 digits
+        return Long.toString(ThreadLocalRandom.current().nextLong(60466176L, 2176782336L), 36);
+    }
+
+    private static String createPrefix() {
+        String run = SEED != null
+                ? Long.toString(SEED.hashCode() & 0xffffffffL, 36) + (SALT.isEmpty() ? "" : "s" + SALT)
+                : new SimpleDateFormat("yyyyMMddHHmmss").format(new java.util.Date());
+        String fork = System.getProperty("api.data.fork", SEED != null ? "0" : processId());
+        return run + "f" + fork + "n";
+    }
+
+    private static Map<String, Object> report() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("seed", SEED);
+        report.put("salt", SALT);
+        report.put("prefix", getRunPrefix());
+        return report;
+    }
+
+    private static String processId() {
+        String name = ManagementFactory.getRuntimeMXBean().getName();
+        int at = name.indexOf('@');
+        return at > 0 ? name.substring(0, at) : Integer.toString(name.hashCode() & Integer.MAX_VALUE, 36);
+    }
 }
@@ -0,0 +1,147 @@
+package lib;
+
+import io.restassured.config.HttpClientConfig;
+import io.restassured.config.RestAssuredConfig;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.CookieStore;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.cookie.Cookie;
+import org.apache.http.entity.BufferedHttpEntity;
+import org.apache.http.impl.client.BasicCookieStore;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.protocol.HttpContext;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+import java.io.IOException;
+import java.security.NoSuchAlgorithmException;
+import java.security.KeyManagementException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One connection pool shared by every request made through {@link ApiCoreRequests}. Each thread
+ * gets its own client on top of it, because Rest Assured writes every request's redirect, timeout
+ * and cookie settings into the client it uses. Connections are kept alive between calls, DNS lookups are cached and TLS sessions
+ * are resumed from a single {@link SSLContext}, so a test run pays for a handful of
+ * handshakes instead of one per request.
+ *
+ * <p>Tuned with system properties: {@code api.http.maxTotal}, {@code api.http.maxPerRoute},
+ * {@code api.http.keepAliveSeconds}, {@code api.http.connectionTtlSeconds},
+ * {@code api.http.dnsTtlSeconds}, {@code api.http.tlsSessionCacheSize}.
+ */
+// Rest Assured 5's HttpClientConfig still requires the deprecated HttpClient 4 types. They are
+// written out in full because javac 8 warns on their imports whatever is suppressed
+@SuppressWarnings("deprecation")
+public final class HttpClientPool {
+
+    private static final int MAX_TOTAL = Integer.getInteger("api.http.maxTotal", 50);
+    private static final int MAX_PER_ROUTE = Integer.getInteger("api.http.maxPerRoute", 20);
+    private static final long KEEP_ALIVE_SECONDS = Long.getLong("api.http.keepAliveSeconds", 10);
+    private static final long CONNECTION_TTL_SECONDS = Long.getLong("api.http.connectionTtlSeconds", 60);
+    private static final long DNS_TTL_SECONDS = Long.getLong("api.http.dnsTtlSeconds", 300);
+    private static final int TLS_SESSION_CACHE_SIZE = Integer.getInteger("api.http.tlsSessionCacheSize", 100);
+    private static final long BUFFERED_BODY_LIMIT = 64 * 1024;
+
+    private static final AtomicLong HANDSHAKES = new AtomicLong();
+    private static final org.apache.http.impl.conn.PoolingClientConnectionManager CONNECTION_MANAGER = createConnectionManager();
+    private static final ThreadLocal<org.apache.http.impl.client.DefaultHttpClient> CLIENTS = ThreadLocal.withInitial(HttpClientPool::newClient);
+
+    private HttpClientPool() {
+    }
+
+    public static RestAssuredConfig config() {
+        return RestAssuredConfig.config().httpClient(
+                HttpClientConfig.httpClientConfig()
+                        .httpClientFactory(CLIENTS::get)
+        );
+    }
+
+    public static org.apache.http.impl.client.DefaultHttpClient newClient() {
+        org.apache.http.impl.client.DefaultHttpClient client = new org.apache.http.impl.client.DefaultHttpClient(CONNECTION_MANAGER) {
+            @Override
+            protected CookieStore createCookieStore() {
+                // Cookies are always passed explicitly, a client kept for the thread must not leak them between tests
+                return new BasicCookieStore() {
+                    @Override
+                    public synchronized void addCookie(Cookie cookie) {
+                    }
+                };
+            }
+        };
+        client.getParams().setBooleanParameter(org.apache.http.params.CoreConnectionPNames.STALE_CONNECTION_CHECK, true);
+        client.setKeepAliveStrategy(new KeepAliveStrategy());
+        // Rest Assured leaves empty bodies unread, which would keep their connections leased forever.
+        // Large and chunked bodies stay streamed so they can be read incrementally
+        client.addResponseInterceptor((response, context) -> {
+            HttpEntity entity = response.getEntity();
+            if (entity != null && entity.getContentLength() >= 0 && entity.getContentLength() <= BUFFERED_BODY_LIMIT) {
+                response.setEntity(new BufferedHttpEntity(entity));
+            }
+        });
+        return client;
+    }
+
+    public static org.apache.http.conn.ClientConnectionManager connectionManager() {
+        return CONNECTION_MANAGER;
+    }
+
+    public static long handshakeCount() {
+        return HANDSHAKES.get();
+    }
+
+    public static String stats() {
+        return CONNECTION_MANAGER.getTotalStats() + ", tls handshakes: " + HANDSHAKES.get();
+    }
+
+    private static org.apache.http.impl.conn.PoolingClientConnectionManager createConnectionManager() {
+        org.apache.http.conn.scheme.SchemeRegistry registry = new org.apache.http.conn.scheme.SchemeRegistry();
+        registry.register(new org.apache.http.conn.scheme.Scheme("http", 80, org.apache.http.conn.scheme.PlainSocketFactory.getSocketFactory()));
+        registry.register(new org.apache.http.conn.scheme.Scheme("https", 443, new CountingSSLSocketFactory(createSslContext())));
+
+        org.apache.http.impl.conn.PoolingClientConnectionManager manager = new org.apache.http.impl.conn.PoolingClientConnectionManager(
+                registry,
+                CONNECTION_TTL_SECONDS,
+                TimeUnit.SECONDS,
+                new CachingDnsResolver(DNS_TTL_SECONDS, TimeUnit.SECONDS)
+        );
+        manager.setMaxTotal(MAX_TOTAL);
+        manager.setDefaultMaxPerRoute(MAX_PER_ROUTE);
+        return manager;
+    }
+
+    private static SSLContext createSslContext() {
+        try {
+            SSLContext context = SSLContext.getInstance("TLS");
+            context.init(null, null, null);
+            context.getClientSessionContext().setSessionCacheSize(TLS_SESSION_CACHE_SIZE);
+            return context;
+        } catch (NoSuchAlgorithmException | KeyManagementException e) {
+            throw new IllegalStateException("Can't create TLS context", e);
+        }
+    }
+
+    private static final class CountingSSLSocketFactory extends org.apache.http.conn.ssl.SSLSocketFactory {
+
+        private CountingSSLSocketFactory(SSLContext sslContext) {
+            super(sslContext, org.apache.http.conn.ssl.SSLSocketFactory.BROWSER_COMPATIBLE_HOSTNAME_VERIFIER);
+        }
+
+        @Override
+        protected void prepareSocket(SSLSocket socket) throws IOException {
+            socket.addHandshakeCompletedListener(event -> HANDSHAKES.incrementAndGet());
+        }
+    }
+
+    private static final class KeepAliveStrategy implements ConnectionKeepAliveStrategy {
+
+        private final ConnectionKeepAliveStrategy serverHint = DefaultConnectionKeepAliveStrategy.INSTANCE;
+
+        @Override
+        public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+            long duration = serverHint.getKeepAliveDuration(response, context);
+            return duration > 0 ? duration : TimeUnit.SECONDS.toMillis(KEEP_ALIVE_SECONDS);
+        }
+    }
+}
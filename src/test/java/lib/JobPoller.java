@@ -0,0 +1,174 @@
+package lib;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Polls a long running job until it is ready, without holding a thread while it waits.
+ * Every poller shares one scheduler thread, which only starts checks; the checks run
+ * asynchronously, for example through {@link AsyncApiCoreRequests#supply}. The first check
+ * comes after the server's hint plus up to 10% jitter, the next ones back off exponentially
+ * with jitter up to the maximum interval. The future fails with a {@link TimeoutException}
+ * at the timeout, even while a check is still running or the server doesn't answer. Once the
+ * future is done, by the timeout, an error or cancelling it, polling stops and the future of a
+ * check in flight is cancelled.
+ */
+public final class JobPoller<T> {
+
+    private static final ScheduledThreadPoolExecutor SCHEDULER = createScheduler();
+    private static final AtomicInteger ACTIVE = new AtomicInteger();
+
+    private final Supplier<CompletableFuture<T>> check;
+    private final Predicate<T> ready;
+    private long initialDelayNanos;
+    private long minIntervalNanos = TimeUnit.MILLISECONDS.toNanos(100);
+    private long maxIntervalNanos = TimeUnit.SECONDS.toNanos(5);
+    private long timeoutNanos = TimeUnit.MINUTES.toNanos(5);
+
+    public JobPoller(Supplier<CompletableFuture<T>> check, Predicate<T> ready) {
+        this.check = check;
+        this.ready = ready;
+    }
+
+    public static int active() {
+        return ACTIVE.get();
+    }
+
+    public JobPoller<T> initialDelay(long delay, TimeUnit unit) {
+        this.initialDelayNanos = unit.toNanos(delay);
+        return this;
+    }
+
+    public JobPoller<T> interval(long min, long max, TimeUnit unit) {
+        this.minIntervalNanos = Math.max(1, unit.toNanos(min));
+        this.maxIntervalNanos = Math.max(minIntervalNanos, unit.toNanos(max));
+        return this;
+    }
+
+    public JobPoller<T> timeout(long timeout, TimeUnit unit) {
+        this.timeoutNanos = unit.toNanos(timeout);
+        return this;
+    }
+
+    public CompletableFuture<T> start() {
+        Poll poll = new Poll();
+        ACTIVE.incrementAndGet();
+        poll.result.whenComplete((value, error) -> {
+            ACTIVE.decrementAndGet();
+            poll.stop();
+        });
+        poll.start();
+        return poll.result;
+    }
+
+    private static long jitter(long bound) {
+        return bound <= 0 ? 0 : ThreadLocalRandom.current().nextLong(bound + 1);
+    }
+
+    private static ScheduledThreadPoolExecutor createScheduler() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1,
+                new DaemonThreadFactory("job-poller-"));
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    private final class Poll {
+
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final long deadline = System.nanoTime() + timeoutNanos;
+        private long backoff = Math.max(minIntervalNanos, Math.min(maxIntervalNanos, initialDelayNanos / 4));
+        private volatile int attempts;
+        private volatile ScheduledFuture<?> next;
+        private volatile ScheduledFuture<?> timeout;
+        private volatile CompletableFuture<T> inFlight;
+
+        private void start() {
+            // A task of its own, so a check that never finishes still times out
+            timeout = SCHEDULER.schedule(this::expire, timeoutNanos, TimeUnit.NANOSECONDS);
+            schedule(initialDelayNanos + jitter(initialDelayNanos / 10));
+        }
+
+        private void stop() {
+            cancel(next);
+            cancel(timeout);
+            CompletableFuture<T> attempt = inFlight;
+            if (attempt != null) {
+                attempt.cancel(true);
+            }
+        }
+
+        private void expire() {
+            result.completeExceptionally(new TimeoutException(
+                    "Job isn't ready after " + attempts + " checks in " + TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + " ms"));
+        }
+
+        private void schedule(long delay) {
+            if (result.isDone()) {
+                return;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                expire();
+                return;
+            }
+            // The last check happens right at the deadline
+            next = SCHEDULER.schedule(this::check, Math.min(delay, remaining), TimeUnit.NANOSECONDS);
+        }
+
+        private void check() {
+            if (result.isDone()) {
+                return;
+            }
+            attempts++;
+            CompletableFuture<T> attempt;
+            try {
+                attempt = check.get();
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+                return;
+            }
+            inFlight = attempt;
+            if (result.isDone()) {
+                // Finished while the check was being started, stop() may have missed it
+                attempt.cancel(true);
+                return;
+            }
+            attempt.whenComplete((value, error) -> {
+                if (error != null) {
+                    result.completeExceptionally(error);
+                    return;
+                }
+                try {
+                    if (ready.test(value)) {
+                        result.complete(value);
+                        return;
+                    }
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                    return;
+                }
+                schedule(nextDelay());
+            });
+        }
+
+        private void cancel(ScheduledFuture<?> task) {
+            if (task != null) {
+                task.cancel(false);
+            }
+        }
+
+        private long nextDelay() {
+            // Half of the interval is fixed and half random, so jobs started together spread out
+            long interval = backoff;
+            backoff = Math.min(maxIntervalNanos, backoff * 2);
+            return interval / 2 + jitter(interval / 2);
+        }
+    }
+}
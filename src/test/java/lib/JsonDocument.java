@@ -0,0 +1,149 @@
+package lib;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.restassured.response.Response;
+
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Response body parsed once into a Jackson tree and shared by every assertion and
+ * extraction made on the same {@link Response}. Field names use the GPath spelling
+ * the tests already use ({@code user_id}, {@code messages[1].message}) and are
+ * compiled to {@link JsonPointer}s once per JVM.
+ *
+ * <p>Documents are found by the identity of their response and dropped once the response is
+ * collected. The cache is a concurrent map, so tests running side by side don't queue on it.
+ */
+public final class JsonDocument {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ConcurrentMap<ResponseKey, JsonDocument> DOCUMENTS = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<Response> COLLECTED = new ReferenceQueue<>();
+    private static final ConcurrentMap<String, JsonPointer> POINTERS = new ConcurrentHashMap<>();
+
+    private final JsonNode root;
+
+    private JsonDocument(JsonNode root) {
+        this.root = root;
+    }
+
+    public static JsonDocument of(Response Response) {
+        JsonDocument document = DOCUMENTS.get(new ResponseKey(Response, null));
+        if (document == null) {
+            expungeCollected();
+            document = new JsonDocument(parse(Response));
+            JsonDocument parsedMeanwhile = DOCUMENTS.putIfAbsent(new ResponseKey(Response, COLLECTED), document);
+            document = parsedMeanwhile != null ? parsedMeanwhile : document;
+        }
+        return document;
+    }
+
+    private static void expungeCollected() {
+        Reference<? extends Response> collected;
+        while ((collected = COLLECTED.poll()) != null) {
+            DOCUMENTS.remove(collected);
+        }
+    }
+
+    public static JsonPointer pointer(String name) {
+        return POINTERS.computeIfAbsent(name, JsonDocument::compile);
+    }
+
+    public JsonNode root() {
+        return root;
+    }
+
+    public boolean has(String name) {
+        return !root.at(pointer(name)).isMissingNode();
+    }
+
+    public JsonNode get(String name) {
+        JsonNode node = root.at(pointer(name));
+        if (node.isMissingNode()) {
+            fail("Response JSON doesn't have field " + name);
+        }
+        return node;
+    }
+
+    public int getInt(String name) {
+        JsonNode node = get(name);
+        if (node.isIntegralNumber() && node.canConvertToInt()) {
+            return node.intValue();
+        }
+        // jsonPath().getInt took numbers sent as strings too
+        if (node.isTextual()) {
+            try {
+                return Integer.parseInt(node.textValue().trim());
+            } catch (NumberFormatException e) {
+                // reported below
+            }
+        }
+        return fail("Response JSON field " + name + " is not an integer: " + node);
+    }
+
+    public String getString(String name) {
+        JsonNode node = get(name);
+        if (node.isNull()) {
+            return null;
+        }
+        return node.isValueNode() ? node.asText() : node.toString();
+    }
+
+    private static JsonNode parse(Response Response) {
+        try {
+            JsonNode root = MAPPER.readTree(Response.asByteArray());
+            if (root == null || root.isMissingNode()) {
+                fail("Response body is empty, JSON expected");
+            }
+            return root;
+        } catch (IOException e) {
+            return fail("Response is not in JSON format: " + Response.asString(), e);
+        }
+    }
+
+    private static JsonPointer compile(String name) {
+        StringBuilder pointer = new StringBuilder();
+        for (String segment : name.replaceAll("\\[(\\d+)]", ".$1").split("\\.")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            pointer.append('/').append(segment.replace("~", "~0").replace("/", "~1"));
+        }
+        return JsonPointer.compile(pointer.toString());
+    }
+
+    /** Weak key that matches only the same response object, whatever its equals says. */
+    private static final class ResponseKey extends WeakReference<Response> {
+
+        private final int hash;
+
+        ResponseKey(Response response, ReferenceQueue<Response> queue) {
+            super(response, queue);
+            hash = System.identityHashCode(response);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            // a collected key only equals itself, so it can still be removed
+            Response response = get();
+            return other instanceof ResponseKey && response != null && response == ((ResponseKey) other).get();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package lib;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import lib.filters.AllureCaptureFilter;
+import lib.filters.ApiFilters;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Pulls a few fields out of a JSON body with Jackson's {@link JsonParser} without
+ * building the whole document. Branches that can't contain a requested field are
+ * skipped and parsing stops as soon as every field is found, so memory use doesn't
+ * grow with the size of the payload.
+ *
+ * <p>{@link #get} goes through the run's filters, so the call is timed and limited like any other,
+ * but its Allure attachment leaves out the response body, which would otherwise be read in full
+ * before the parser gets it. It also asks for {@code Connection: close}, so closing a partly read
+ * body drops the connection instead of draining the rest into a pooled one. The opt-in cache,
+ * single-flight and cassette filters still buffer the body they keep.
+ */
+public final class JsonStreamExtractor {
+
+    static {
+        ApiFilters.install();
+    }
+
+    private static final RequestSpecification SPEC = new RequestSpecBuilder()
+            .setConfig(HttpClientPool.config())
+            .addFilter(AllureCaptureFilter.withoutResponseBodies())
+            .addHeader("Connection", "close")
+            .build();
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final JsonFactory FACTORY = new JsonFactory().disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+
+    private JsonStreamExtractor() {
+    }
+
+    public static Map<String, String> extract(Response Response, String... names) {
+        try (InputStream body = Response.asInputStream()) {
+            return extract(body, names);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static Map<String, String> get(String url, String... names) {
+        Response response = given(SPEC).get(url).andReturn();
+        if (response.statusCode() / 100 != 2) {
+            fail("GET " + url + " answered " + response.statusLine() + ": " + response.asString());
+        }
+        return extract(response, names);
+    }
+
+    public static Map<String, String> extract(InputStream body, String... names) throws IOException {
+        Map<JsonPointer, String> remaining = new HashMap<>();
+        for (String name : names) {
+            remaining.put(JsonDocument.pointer(name), name);
+        }
+
+        Map<String, String> found = new HashMap<>();
+        try (JsonParser parser = FACTORY.createParser(body)) {
+            JsonToken token;
+            while (!remaining.isEmpty() && (token = parser.nextToken()) != null) {
+                if (token == JsonToken.FIELD_NAME || token.isStructEnd()) {
+                    continue;
+                }
+                JsonPointer path = pathOf(parser, token);
+                String name = remaining.remove(path);
+                if (name != null) {
+                    found.put(name, readValue(parser, token));
+                } else if (token.isStructStart() && !leadsToRemaining(path, remaining)) {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String name : names) {
+            if (found.containsKey(name)) {
+                values.put(name, found.get(name));
+            }
+        }
+        return values;
+    }
+
+    private static JsonPointer pathOf(JsonParser parser, JsonToken token) {
+        JsonStreamContext context = parser.getParsingContext();
+        // A container start already opened its own context, its location is held by the parent
+        if (token.isStructStart()) {
+            context = context.getParent();
+        }
+        return context.pathAsPointer();
+    }
+
+    private static boolean leadsToRemaining(JsonPointer path, Map<JsonPointer, String> remaining) {
+        String prefix = path.toString() + "/";
+        for (JsonPointer pointer : remaining.keySet()) {
+            if (pointer.toString().startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String readValue(JsonParser parser, JsonToken token) throws IOException {
+        if (token.isStructStart()) {
+            return MAPPER.readTree(parser).toString();
+        }
+        return token == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+    }
+}
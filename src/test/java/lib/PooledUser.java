@@ -0,0 +1,38 @@
+package lib;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public final class PooledUser {
+
+    private final int id;
+    private final Map<String, String> userData;
+    private final long createdAt;
+
+    public PooledUser(int id, Map<String, String> userData, long createdAt) {
+        this.id = id;
+        this.userData = Collections.unmodifiableMap(new HashMap<>(userData));
+        this.createdAt = createdAt;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return userData.get("email");
+    }
+
+    public String getPassword() {
+        return userData.get("password");
+    }
+
+    public Map<String, String> getUserData() {
+        return userData;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+}
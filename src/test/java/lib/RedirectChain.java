@@ -0,0 +1,129 @@
+package lib;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What {@link RedirectTracer} saw: one hop per request, in order, and why the walk stopped.
+ */
+public final class RedirectChain {
+
+    public enum Outcome {
+        /** The last hop answered without redirecting. */
+        COMPLETED,
+        /** A Location pointed back to a URL already visited. */
+        LOOP,
+        /** Still redirecting after the maximum number of hops. */
+        TOO_MANY_HOPS,
+        /** A redirect came without a Location header. */
+        MISSING_LOCATION,
+        /** A redirect came with a Location that is not a valid URI. */
+        INVALID_LOCATION
+    }
+
+    private final List<Hop> hops;
+    private final Outcome outcome;
+
+    RedirectChain(List<Hop> hops, Outcome outcome) {
+        this.hops = Collections.unmodifiableList(new ArrayList<>(hops));
+        this.outcome = outcome;
+    }
+
+    public List<Hop> getHops() {
+        return hops;
+    }
+
+    public Hop getHop(int index) {
+        return hops.get(index);
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public boolean isComplete() {
+        return outcome == Outcome.COMPLETED;
+    }
+
+    public int getRedirectCount() {
+        int redirects = 0;
+        for (Hop hop : hops) {
+            if (hop.isRedirect()) {
+                redirects++;
+            }
+        }
+        return redirects;
+    }
+
+    public String getFinalUrl() {
+        return hops.get(hops.size() - 1).getUrl();
+    }
+
+    public int getFinalStatusCode() {
+        return hops.get(hops.size() - 1).getStatusCode();
+    }
+
+    public long getTotalMillis() {
+        long nanos = 0;
+        for (Hop hop : hops) {
+            nanos += hop.nanos;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder chain = new StringBuilder(outcome.name()).append(" after ").append(hops.size()).append(" hops");
+        for (Hop hop : hops) {
+            chain.append("\n  ").append(hop);
+        }
+        return chain.toString();
+    }
+
+    public static final class Hop {
+
+        private final String url;
+        private final int statusCode;
+        private final String location;
+        private final long nanos;
+
+        Hop(String url, int statusCode, String location, long nanos) {
+            this.url = url;
+            this.statusCode = statusCode;
+            this.location = location;
+            this.nanos = nanos;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        public String getLocation() {
+            return location;
+        }
+
+        public boolean isRedirect() {
+            return statusCode >= 300 && statusCode < 400;
+        }
+
+        public long getMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(nanos);
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        @Override
+        public String toString() {
+            return statusCode + " " + url + (location != null ? " -> " + location : "")
+                    + " (" + TimeUnit.NANOSECONDS.toMicros(nanos) / 1000.0 + " ms)";
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package lib;
+
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.config.RedirectConfig;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import lib.filters.AllureCaptureFilter;
+import lib.filters.ApiFilters;
+import lib.filters.LatencyFilter;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * Follows a redirect chain one hop at a time and records status, Location and time of each hop.
+ * The time is the network call alone, as {@link LatencyFilter} measures it, and 0 for a hop that
+ * never went out. It stops on a non-redirect answer, on a loop, on a Location that is missing or
+ * not a valid URI and after {@code api.redirects.maxHops} hops (20 by default). Hops go through the shared connection pool, so a chain on one host reuses
+ * its connection. The tracer has its own client that never follows redirects, which lets many
+ * chains run at once without touching the redirect settings of other requests.
+ */
+public final class RedirectTracer {
+
+    private static final int MAX_HOPS = Integer.getInteger("api.redirects.maxHops", 20);
+
+    static {
+        ApiFilters.install();
+    }
+
+    private static final RequestSpecification SPEC = new RequestSpecBuilder()
+            .setConfig(HttpClientPool.config().redirect(RedirectConfig.redirectConfig().followRedirects(false)))
+            .addFilter(new AllureCaptureFilter())
+            .build();
+
+    private RedirectTracer() {
+    }
+
+    public static RedirectChain trace(String url) {
+        return trace(url, MAX_HOPS);
+    }
+
+    public static RedirectChain trace(String url, int maxHops) {
+        if (maxHops <= 0) {
+            throw new IllegalArgumentException("maxHops must be positive, not " + maxHops);
+        }
+        List<RedirectChain.Hop> hops = new ArrayList<>();
+        Set<String> visited = new HashSet<>();
+        String current = url;
+        visited.add(current);
+
+        while (true) {
+            LatencyFilter.takeLastCallNanos();
+            Response response = given(SPEC)
+                    .get(current)
+                    .andReturn();
+            long nanos = Math.max(0, LatencyFilter.takeLastCallNanos());
+
+            String location = response.getHeader("Location");
+            RedirectChain.Hop hop = new RedirectChain.Hop(current, response.getStatusCode(), location, nanos);
+            hops.add(hop);
+
+            if (!hop.isRedirect()) {
+                return new RedirectChain(hops, RedirectChain.Outcome.COMPLETED);
+            }
+            if (location == null) {
+                return new RedirectChain(hops, RedirectChain.Outcome.MISSING_LOCATION);
+            }
+            current = resolve(current, location);
+            if (current == null) {
+                return new RedirectChain(hops, RedirectChain.Outcome.INVALID_LOCATION);
+            }
+            if (!visited.add(current)) {
+                return new RedirectChain(hops, RedirectChain.Outcome.LOOP);
+            }
+            if (hops.size() >= maxHops) {
+                return new RedirectChain(hops, RedirectChain.Outcome.TOO_MANY_HOPS);
+            }
+        }
+    }
+
+    public static CompletableFuture<RedirectChain> traceAsync(String url) {
+        return AsyncApiCoreRequests.supply(() -> trace(url));
+    }
+
+    public static List<RedirectChain> traceAll(Collection<String> urls) {
+        List<CompletableFuture<RedirectChain>> chains = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            chains.add(traceAsync(url));
+        }
+        List<RedirectChain> traced = new ArrayList<>(chains.size());
+        for (CompletableFuture<RedirectChain> chain : chains) {
+            traced.add(chain.join());
+        }
+        return traced;
+    }
+
+    private static String resolve(String url, String location) {
+        try {
+            return new URI(url).resolve(new URI(location)).toString();
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+}
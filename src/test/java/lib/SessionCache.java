@@ -0,0 +1,101 @@
+package lib;
+
+import io.restassured.response.Response;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Logged in sessions shared by all tests of a run, one per email and password.
+ * A session lives for {@code api.session.ttlSeconds} (10 minutes by default) and is
+ * dropped earlier when the server rejects it in a request that must be authorized, see
+ * {@link BaseTestCase#withSession(String, String, boolean, java.util.function.Function)}.
+ */
+public final class SessionCache {
+
+    private static final long TTL_NANOS = TimeUnit.SECONDS.toNanos(Long.getLong("api.session.ttlSeconds", 600));
+    private static final ConcurrentMap<String, CompletableFuture<AuthSession>> SESSIONS = new ConcurrentHashMap<>();
+
+    private SessionCache() {
+    }
+
+    public static long expiresAt() {
+        return System.nanoTime() + TTL_NANOS;
+    }
+
+    public static AuthSession get(String email, String password, Function<Map<String, String>, AuthSession> login) {
+        String key = key(email, password);
+        while (true) {
+            // One login per account, concurrent callers wait for its result. The login itself runs
+            // outside the map, so it holds no map lock and pins no carrier thread
+            CompletableFuture<AuthSession> created = new CompletableFuture<>();
+            CompletableFuture<AuthSession> session = SESSIONS.computeIfAbsent(key, k -> created);
+            if (session == created) {
+                login(key, email, password, login, created);
+            }
+            AuthSession result = await(session);
+            // A session just logged in is used even with a zero TTL
+            if (session == created || !result.isExpired(System.nanoTime())) {
+                return result;
+            }
+            SESSIONS.remove(key, session);
+        }
+    }
+
+    public static void invalidate(String email, String password, AuthSession session) {
+        String key = key(email, password);
+        CompletableFuture<AuthSession> current = SESSIONS.get(key);
+        if (current != null && current.getNow(null) == session) {
+            SESSIONS.remove(key, current);
+        }
+    }
+
+    public static void clear() {
+        SESSIONS.clear();
+    }
+
+    public static boolean isRejected(Response Response) {
+        return Response.statusCode() == 401
+                || Response.statusCode() == 403
+                || "Auth token not supplied".equals(Response.asString());
+    }
+
+    private static void login(String key, String email, String password,
+                              Function<Map<String, String>, AuthSession> login, CompletableFuture<AuthSession> session) {
+        Map<String, String> authData = new HashMap<>();
+        authData.put("email", email);
+        authData.put("password", password);
+        try {
+            session.complete(login.apply(authData));
+        } catch (RuntimeException | Error e) {
+            // The next caller tries again instead of getting the same failure
+            SESSIONS.remove(key, session);
+            session.completeExceptionally(e);
+        }
+    }
+
+    private static AuthSession await(CompletableFuture<AuthSession> session) {
+        try {
+            return session.join();
+        } catch (CompletionException e) {
+            // Waiters fail the same way as the login they waited for
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static String key(String email, String password) {
+        return email + '\u0000' + password;
+    }
+}
@@ -0,0 +1,18 @@
+package lib;
+
+/**
+ * Server-side accounts shared by several tests. Use the names with JUnit's
+ * {@code @ResourceLock} so that, in the parallel profile, tests touching the same
+ * account run one after another and everything else runs concurrently. Tests that
+ * only log in or read take the lock in {@code READ} mode.
+ */
+public final class SharedAccounts {
+
+    public static final String SYSTEM_USER_2 = "account:2:vinkotov@example.com";
+    public static final String USER_46754 = "account:46754:learnqa20221020170727@example.com";
+    public static final String USER_46755 = "account:46755:learnqa20221020173228@example.com";
+    public static final String USER_46793 = "account:46793:learnqa20221020183521@example.com";
+
+    private SharedAccounts() {
+    }
+}
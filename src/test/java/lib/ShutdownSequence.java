@@ -0,0 +1,64 @@
+package lib;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The one shutdown hook of the test library. Separate hooks run at the same time in no set
+ * order, so a report could be written while the user pool is still deleting users, or a cassette
+ * closed under a request that was still being recorded. Here every task runs on the hook's
+ * thread, stage by stage, in the order the tasks were added within a stage.
+ */
+public final class ShutdownSequence {
+
+    public enum Stage {
+        /** Requests still queued, such as the user pool's deletes. */
+        FINISH_CALLS,
+        /** Files that calls write to, such as cassettes. */
+        CLOSE_RECORDINGS,
+        /** Allure results still waiting to be written. */
+        FLUSH_RESULTS,
+        /** Metrics reports, last so they count everything above. */
+        WRITE_REPORTS
+    }
+
+    private static final Map<Stage, List<Runnable>> TASKS = new EnumMap<>(Stage.class);
+    // The stage the hook is running, null before the JVM exits
+    private static Stage running;
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(ShutdownSequence::run, "shutdown-sequence"));
+    }
+
+    private ShutdownSequence() {
+    }
+
+    /** Adds a task; one added while the JVM exits still runs if its stage hasn't started yet. */
+    public static synchronized void add(Stage stage, Runnable task) {
+        if (running != null && stage.compareTo(running) <= 0) {
+            System.err.println("Shutdown task added after its " + stage + " stage, not run");
+            return;
+        }
+        TASKS.computeIfAbsent(stage, key -> new ArrayList<>()).add(task);
+    }
+
+    private static void run() {
+        for (Stage stage : Stage.values()) {
+            List<Runnable> tasks;
+            synchronized (ShutdownSequence.class) {
+                running = stage;
+                tasks = TASKS.containsKey(stage) ? new ArrayList<>(TASKS.get(stage)) : new ArrayList<>();
+            }
+            for (Runnable task : tasks) {
+                try {
+                    task.run();
+                } catch (RuntimeException | Error e) {
+                    // the other tasks still run
+                    System.err.println("Shutdown task failed: " + e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package lib;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.qameta.allure.Allure;
+import io.restassured.response.Response;
+import lib.filters.CassetteFilter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Users registered ahead of time so tests don't pay for {@code POST /api/user/}.
+ * A background thread registers {@code api.userPool.batchSize} users whenever fewer than
+ * {@code api.userPool.lowWaterMark} are left. A leased user belongs to one test only:
+ * {@link #release} deletes it, {@link #recycle} puts an untouched user back, and
+ * {@link UserPoolExtension} releases whatever a test leased and left, on whichever thread it was
+ * leased or returned. Pending deletes finish before the JVM exits, ahead of the cassette and the
+ * reports, see {@link ShutdownSequence}; users still in the pool then are saved to {@code api.userPool.file} and
+ * reused by the next run unless older than {@code api.userPool.maxAgeHours}, except against the
+ * emulator.
+ * With a cassette ({@code api.cassette}) users are only registered on lease and never
+ * saved, because replay matches requests by the order they are made in.
+ */
+public final class UserPool {
+
+    private static final String USER_URL = ApiConfig.url("/api/user/");
+    private static final String LOGIN_URL = ApiConfig.url("/api/user/login");
+
+    private static final boolean CASSETTE = CassetteFilter.isEnabled();
+    private static final int BATCH_SIZE = CASSETTE ? 0 : Integer.getInteger("api.userPool.batchSize", 5);
+    private static final int LOW_WATER_MARK = Integer.getInteger("api.userPool.lowWaterMark", 3);
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = Long.getLong("api.userPool.shutdownTimeoutSeconds", 30);
+    private static final long MAX_AGE_MILLIS = TimeUnit.HOURS.toMillis(Long.getLong("api.userPool.maxAgeHours", 24));
+    private static final Path FILE = Paths.get(System.getProperty("api.userPool.file", "target/user-pool.json"));
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ApiCoreRequests API = new ApiCoreRequests();
+    private static final ConcurrentLinkedQueue<PooledUser> AVAILABLE = new ConcurrentLinkedQueue<>();
+    private static final AtomicBoolean REFILLING = new AtomicBoolean();
+    private static final ExecutorService WORKER = Executors.newSingleThreadExecutor(
+            new DaemonThreadFactory("user-pool-"));
+
+    static {
+        // emulator users live as long as the JVM, so there is nothing worth saving
+        if (!ApiConfig.isEmulated()) {
+            if (!CASSETTE) {
+                load();
+            }
+            ShutdownSequence.add(ShutdownSequence.Stage.FINISH_CALLS, UserPool::shutdown);
+        }
+        refillIfNeeded();
+    }
+
+    private UserPool() {
+    }
+
+    public static PooledUser lease() {
+        PooledUser user = AVAILABLE.poll();
+        if (user == null) {
+            user = register();
+        }
+        Leases.add(user);
+        refillIfNeeded();
+        return user;
+    }
+
+    public static void recycle(PooledUser user) {
+        Leases.remove(user);
+        AVAILABLE.add(user);
+    }
+
+    public static void release(PooledUser user) {
+        Leases.remove(user);
+        WORKER.execute(() -> delete(user));
+    }
+
+    public static int available() {
+        return AVAILABLE.size();
+    }
+
+    private static void refillIfNeeded() {
+        if (BATCH_SIZE > 0 && AVAILABLE.size() < LOW_WATER_MARK && REFILLING.compareAndSet(false, true)) {
+            WORKER.execute(() -> {
+                try {
+                    for (int i = 0; i < BATCH_SIZE; i++) {
+                        AVAILABLE.add(register());
+                    }
+                } catch (RuntimeException | AssertionError e) {
+                    System.err.println("User pool refill failed: " + e.getMessage());
+                } finally {
+                    REFILLING.set(false);
+                }
+            });
+        }
+    }
+
+    private static PooledUser register() {
+        Map<String, String> userData = DataGenerator.getRegistrationData();
+        Response responseCreateAuth = API.makePostRequest(USER_URL, userData);
+        if (responseCreateAuth.statusCode() != 200) {
+            throw new IllegalStateException("Can't register pooled user: " + responseCreateAuth.asString());
+        }
+        return new PooledUser(JsonDocument.of(responseCreateAuth).getInt("id"), userData, System.currentTimeMillis());
+    }
+
+    private static void delete(PooledUser user) {
+        Map<String, String> authData = new HashMap<>();
+        authData.put("email", user.getEmail());
+        authData.put("password", user.getPassword());
+
+        Response responseGetAuth = API.makePostRequest(LOGIN_URL, authData);
+        if (responseGetAuth.statusCode() != 200) {
+            return;
+        }
+        API.makeDeleteUserRequest(
+                USER_URL,
+                responseGetAuth.getHeader("x-csrf-token"),
+                responseGetAuth.getCookie("auth_sid"),
+                user.getId()
+        );
+    }
+
+    private static void load() {
+        if (!Files.exists(FILE)) {
+            return;
+        }
+        try {
+            List<Map<String, String>> saved = MAPPER.readValue(FILE.toFile(), new TypeReference<List<Map<String, String>>>() {});
+            long oldest = System.currentTimeMillis() - MAX_AGE_MILLIS;
+            for (Map<String, String> entry : saved) {
+                long createdAt = Long.parseLong(entry.remove("createdAt"));
+                int id = Integer.parseInt(entry.remove("id"));
+                if (createdAt >= oldest) {
+                    AVAILABLE.add(new PooledUser(id, entry, createdAt));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Ignoring unreadable user pool file " + FILE + ": " + e.getMessage());
+        }
+    }
+
+    private static void shutdown() {
+        WORKER.shutdown();
+        try {
+            if (!WORKER.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                System.err.println("User pool deletes still pending after " + SHUTDOWN_TIMEOUT_SECONDS + " s");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!CASSETTE) {
+            save();
+        }
+    }
+
+    private static void save() {
+        List<Map<String, String>> saved = new ArrayList<>();
+        for (PooledUser user : AVAILABLE) {
+            Map<String, String> entry = new HashMap<>(user.getUserData());
+            entry.put("id", String.valueOf(user.getId()));
+            entry.put("createdAt", String.valueOf(user.getCreatedAt()));
+            saved.add(entry);
+        }
+        try {
+            if (FILE.getParent() != null) {
+                Files.createDirectories(FILE.getParent());
+            }
+            MAPPER.writerWithDefaultPrettyPrinter().writeValue(FILE.toFile(), saved);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't save user pool to " + FILE, e);
+        }
+    }
+
+    /**
+     * Users leased by each running test and not yet released or recycled. A test is found by its
+     * Allure test case, which {@link AsyncApiCoreRequests} carries over to its threads, so a user
+     * leased or returned on another thread still counts for the test. Kept apart so that
+     * {@link UserPoolExtension} can look without starting the pool for tests that never use it.
+     */
+    static final class Leases {
+
+        private static final ConcurrentMap<String, Set<PooledUser>> BY_TEST = new ConcurrentHashMap<>();
+
+        private Leases() {
+        }
+
+        static void open(String testCase) {
+            BY_TEST.put(testCase, ConcurrentHashMap.newKeySet());
+        }
+
+        /** The users the test still holds; it leases no more after this. */
+        static Set<PooledUser> close(String testCase) {
+            Set<PooledUser> leased = BY_TEST.remove(testCase);
+            return leased == null ? new HashSet<>() : leased;
+        }
+
+        private static void add(PooledUser user) {
+            // Leased outside of a test, or of one the extension doesn't watch: nobody to return it for
+            Optional<String> testCase = Allure.getLifecycle().getCurrentTestCase();
+            Set<PooledUser> leased = testCase.isPresent() ? BY_TEST.get(testCase.get()) : null;
+            if (leased != null) {
+                leased.add(user);
+            }
+        }
+
+        private static void remove(PooledUser user) {
+            for (Set<PooledUser> leased : BY_TEST.values()) {
+                leased.remove(user);
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package lib;
+
+import io.qameta.allure.Allure;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.util.Optional;
+
+/**
+ * Releases the {@link UserPool} users a test leased and neither released nor recycled,
+ * also when the test failed, so no pooled account outlives its test. The leases of a test
+ * live in its extension store, which JUnit closes once the test and its callbacks are done.
+ */
+public class UserPoolExtension implements BeforeEachCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(UserPoolExtension.class);
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        Optional<String> testCase = Allure.getLifecycle().getCurrentTestCase();
+        if (!testCase.isPresent()) {
+            return;
+        }
+        UserPool.Leases.open(testCase.get());
+        context.getStore(NAMESPACE).put("leases", (ExtensionContext.Store.CloseableResource) () -> {
+            for (PooledUser user : UserPool.Leases.close(testCase.get())) {
+                UserPool.release(user);
+            }
+        });
+    }
+}
@@ -0,0 +1,45 @@
+package lib.allure;
+
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.model.Parameter;
+import io.qameta.allure.model.Status;
+import io.qameta.allure.model.StepResult;
+import io.qameta.allure.util.ObjectUtils;
+import io.qameta.allure.util.ResultsUtils;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Records an Allure step around a call, with the same name, parameters and status the
+ * {@code @Step} aspect would record, but without load-time weaving.
+ */
+public final class AllureSteps {
+
+    private AllureSteps() {
+    }
+
+    public static <T> T step(String name, Supplier<T> body, Parameter... parameters) {
+        AllureLifecycle lifecycle = Allure.getLifecycle();
+        String uuid = UUID.randomUUID().toString();
+        lifecycle.startStep(uuid, new StepResult().setName(name).setParameters(Arrays.asList(parameters)));
+        try {
+            T result = body.get();
+            lifecycle.updateStep(uuid, step -> step.setStatus(Status.PASSED));
+            return result;
+        } catch (RuntimeException | Error e) {
+            lifecycle.updateStep(uuid, step -> step
+                    .setStatus(ResultsUtils.getStatus(e).orElse(Status.BROKEN))
+                    .setStatusDetails(ResultsUtils.getStatusDetails(e).orElse(null)));
+            throw e;
+        } finally {
+            lifecycle.stopStep(uuid);
+        }
+    }
+
+    public static Parameter parameter(String name, Object value) {
+        return new Parameter().setName(name).setValue(ObjectUtils.toString(value));
+    }
+}
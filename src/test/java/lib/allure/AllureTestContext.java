@@ -0,0 +1,60 @@
+package lib.allure;
+
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.internal.AllureThreadContext;
+
+import java.lang.reflect.Field;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Runs code on a pooled thread as part of a given Allure test case, or of none. Allure keeps the
+ * current test in an inheritable thread local and has no public way to clear it, so without this
+ * a pooled thread keeps reporting steps to whichever test it last ran for or was created under.
+ */
+public final class AllureTestContext {
+
+    private static final Field THREAD_CONTEXT = threadContextField();
+
+    private AllureTestContext() {
+    }
+
+    /** Runs {@code body} with {@code testCase} as the current test and restores the previous one after. */
+    public static <T> T callIn(Optional<String> testCase, Supplier<T> body) {
+        AllureLifecycle lifecycle = Allure.getLifecycle();
+        Optional<String> previous = lifecycle.getCurrentTestCase();
+        if (previous.equals(testCase)) {
+            // Same test, possibly the caller's own thread: its open steps stay as they are
+            return body.get();
+        }
+        set(lifecycle, testCase);
+        try {
+            return body.get();
+        } finally {
+            set(lifecycle, previous);
+        }
+    }
+
+    private static void set(AllureLifecycle lifecycle, Optional<String> testCase) {
+        // A test that has been written is no longer known to Allure, the thread then gets no test
+        if (testCase.isPresent() && lifecycle.setCurrentTestCase(testCase.get())) {
+            return;
+        }
+        try {
+            ((AllureThreadContext) THREAD_CONTEXT.get(lifecycle)).clear();
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Can't clear the Allure thread context", e);
+        }
+    }
+
+    private static Field threadContextField() {
+        try {
+            Field field = AllureLifecycle.class.getDeclaredField("threadContext");
+            field.setAccessible(true);
+            return field;
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException("This Allure version keeps no threadContext in AllureLifecycle", e);
+        }
+    }
+}
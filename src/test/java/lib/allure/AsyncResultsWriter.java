@@ -0,0 +1,186 @@
+package lib.allure;
+
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.AllureResultsWriter;
+import io.qameta.allure.model.TestResult;
+import io.qameta.allure.model.TestResultContainer;
+import lib.DaemonThreadFactory;
+import lib.ShutdownSequence;
+import lib.metrics.MetricsReport;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hands Allure results, containers and attachments to one background thread, which writes
+ * them with the lifecycle's own writer, so the files and the report are the same.
+ * The thread drains everything queued since its last wake-up in one go; each result is still its
+ * own file, as Allure expects. At most {@code api.allure.writer.queueSize} writes wait, after that
+ * test threads block until there is room. Whatever is queued is written before the JVM exits.
+ *
+ * <p>Installed by {@link lib.filters.ApiFiltersExtension} before the first test class runs. Allure's
+ * JUnit listener keeps the lifecycle it was created with, so the writer is swapped inside that
+ * lifecycle rather than the lifecycle replaced; results written before that are written directly.
+ * {@code -Dapi.allure.asyncWriter=false} keeps Allure's synchronous writer.
+ */
+public final class AsyncResultsWriter implements AllureResultsWriter {
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("api.allure.asyncWriter", "true"));
+    private static final int QUEUE_SIZE = Integer.getInteger("api.allure.writer.queueSize", 10_000);
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private static final Field WRITER = writerField();
+
+    private static AsyncResultsWriter installed;
+
+    private final AllureResultsWriter delegate;
+    private final BlockingQueue<Runnable> queue = new LinkedBlockingQueue<>(QUEUE_SIZE);
+    private final LongAdder results = new LongAdder();
+    private final LongAdder containers = new LongAdder();
+    private final LongAdder attachments = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final AtomicInteger maxBatch = new AtomicInteger();
+
+    AsyncResultsWriter(AllureResultsWriter delegate) {
+        this.delegate = delegate;
+        Thread writer = new DaemonThreadFactory("allure-writer-").newThread(this::drain);
+        writer.start();
+    }
+
+    public static synchronized void install() {
+        if (!ENABLED || installed != null) {
+            return;
+        }
+        AllureLifecycle lifecycle = Allure.getLifecycle();
+        try {
+            installed = new AsyncResultsWriter((AllureResultsWriter) WRITER.get(lifecycle));
+            WRITER.set(lifecycle, installed);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Can't replace the Allure results writer", e);
+        }
+        ShutdownSequence.add(ShutdownSequence.Stage.FLUSH_RESULTS, AsyncResultsWriter::flush);
+        MetricsReport.register("allure-writer.json", installed::report);
+    }
+
+    /** Waits until everything queued so far is written. */
+    public static void flush() {
+        AsyncResultsWriter writer;
+        synchronized (AsyncResultsWriter.class) {
+            writer = installed;
+        }
+        if (writer == null) {
+            return;
+        }
+        CountDownLatch written = new CountDownLatch(1);
+        try {
+            writer.enqueue(written::countDown);
+            if (!written.await(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                System.err.println("Allure results still queued after " + SHUTDOWN_TIMEOUT_SECONDS + " s: " + writer.queue.size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void write(TestResult testResult) {
+        results.increment();
+        enqueue(() -> delegate.write(testResult));
+    }
+
+    @Override
+    public void write(TestResultContainer testResultContainer) {
+        containers.increment();
+        enqueue(() -> delegate.write(testResultContainer));
+    }
+
+    @Override
+    public void write(String source, InputStream attachment) {
+        attachments.increment();
+        byte[] content = readAll(attachment);
+        enqueue(() -> delegate.write(source, new ByteArrayInputStream(content)));
+    }
+
+    private void enqueue(Runnable write) {
+        try {
+            queue.put(write);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            write.run();
+        }
+    }
+
+    private void drain() {
+        List<Runnable> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch);
+            batches.increment();
+            maxBatch.accumulateAndGet(batch.size(), Math::max);
+            for (Runnable write : batch) {
+                try {
+                    write.run();
+                } catch (RuntimeException e) {
+                    failures.increment();
+                    System.err.println("Allure result not written: " + e);
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    private Map<String, Object> report() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("results", results.sum());
+        report.put("containers", containers.sum());
+        report.put("attachments", attachments.sum());
+        report.put("batches", batches.sum());
+        report.put("maxBatch", maxBatch.get());
+        report.put("failures", failures.sum());
+        return report;
+    }
+
+    private static Field writerField() {
+        try {
+            Field field = AllureLifecycle.class.getDeclaredField("writer");
+            field.setAccessible(true);
+            return field;
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException("This Allure version keeps no writer in AllureLifecycle", e);
+        }
+    }
+
+    private static byte[] readAll(InputStream attachment) {
+        try (InputStream in = attachment) {
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                content.write(buffer, 0, read);
+            }
+            return content.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
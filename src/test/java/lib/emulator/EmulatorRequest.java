@@ -0,0 +1,129 @@
+package lib.emulator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * A parsed request. Like the playground, parameters are read from the query string and
+ * from the body, which may be either JSON or form encoded whatever its content type says.
+ */
+public final class EmulatorRequest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String method;
+    private final String path;
+    private final Map<String, String> headers;
+    private final Map<String, String> cookies = new HashMap<>();
+    private final Map<String, String> params = new HashMap<>();
+    private final String body;
+
+    EmulatorRequest(String method, String target, Map<String, String> headers, String body) {
+        this.method = method;
+        this.headers = headers;
+        this.body = body;
+
+        int query = target.indexOf('?');
+        String rawPath = query < 0 ? target : target.substring(0, query);
+        this.path = rawPath.length() > 1 && rawPath.endsWith("/") ? rawPath.substring(0, rawPath.length() - 1) : rawPath;
+        if (query >= 0) {
+            parseForm(target.substring(query + 1));
+        }
+        parseBody(body);
+        parseCookies(headers.get("cookie"));
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getHeader(String name) {
+        return headers.get(name.toLowerCase());
+    }
+
+    public Map<String, String> getHeaders() {
+        return Collections.unmodifiableMap(headers);
+    }
+
+    public String getCookie(String name) {
+        return cookies.get(name);
+    }
+
+    public String getParam(String name) {
+        String value = params.get(name);
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    public Map<String, String> getParams() {
+        return Collections.unmodifiableMap(params);
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    private void parseBody(String body) {
+        String trimmed = body.trim();
+        if (!trimmed.startsWith("{")) {
+            parseForm(trimmed);
+            return;
+        }
+        try {
+            JsonNode json = MAPPER.readTree(trimmed);
+            Iterator<Map.Entry<String, JsonNode>> fields = json.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                JsonNode value = field.getValue();
+                if (!value.isNull()) {
+                    params.put(field.getKey(), value.isValueNode() ? value.asText() : value.toString());
+                }
+            }
+        } catch (IOException e) {
+            // not JSON after all, the playground ignores such bodies too
+        }
+    }
+
+    private void parseForm(String form) {
+        for (String pair : form.split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int equals = pair.indexOf('=');
+            String name = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            params.put(decode(name), decode(value));
+        }
+    }
+
+    private void parseCookies(String header) {
+        if (header == null) {
+            return;
+        }
+        for (String cookie : header.split(";")) {
+            int equals = cookie.indexOf('=');
+            if (equals > 0) {
+                cookies.put(cookie.substring(0, equals).trim(), cookie.substring(equals + 1).trim());
+            }
+        }
+    }
+
+    private static String decode(String value) {
+        try {
+            return URLDecoder.decode(value, "UTF-8");
+        } catch (UnsupportedEncodingException | IllegalArgumentException e) {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package lib.emulator;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class EmulatorResponse {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final int status;
+    private final String contentType;
+    private final byte[] body;
+    private final List<String[]> headers = new ArrayList<>();
+
+    private EmulatorResponse(int status, String contentType, byte[] body) {
+        this.status = status;
+        this.contentType = contentType;
+        this.body = body;
+    }
+
+    public static EmulatorResponse json(int status, Object body) {
+        try {
+            return new EmulatorResponse(status, "application/json", MAPPER.writeValueAsBytes(body));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Can't serialize emulator response", e);
+        }
+    }
+
+    public static EmulatorResponse text(int status, String body) {
+        return new EmulatorResponse(status, "text/html; charset=utf-8", body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static EmulatorResponse redirect(int status, String location) {
+        return text(status, "").header("Location", location);
+    }
+
+    public EmulatorResponse header(String name, String value) {
+        headers.add(new String[]{name, value});
+        return this;
+    }
+
+    public EmulatorResponse cookie(String name, String value) {
+        return header("Set-Cookie", name + "=" + value + "; path=/");
+    }
+
+    int getStatus() {
+        return status;
+    }
+
+    String getContentType() {
+        return contentType;
+    }
+
+    byte[] getBody() {
+        return body;
+    }
+
+    List<String[]> getHeaders() {
+        return headers;
+    }
+}
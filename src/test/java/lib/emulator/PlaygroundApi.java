@@ -0,0 +1,186 @@
+package lib.emulator;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The tutorial and homework endpoints of the playground. Each job of
+ * {@code longtime_job} takes {@code api.emulator.jobSeconds} (1 by default).
+ */
+final class PlaygroundApi {
+
+    private static final int JOB_SECONDS = Integer.getInteger("api.emulator.jobSeconds", 1);
+    private static final int REDIRECTS = 2;
+    private static final String AUTH_LOGIN = "secret_login";
+    private static final String AUTH_PASSWORD = "secret_pass";
+    private static final String SUPER_ADMIN_LOGIN = "super_admin";
+    private static final String SUPER_ADMIN_PASSWORD = "welcome";
+
+    private final String baseUrl;
+    private final ConcurrentMap<String, Long> jobs = new ConcurrentHashMap<>();
+    private final Set<String> authCookies = ConcurrentHashMap.newKeySet();
+
+    PlaygroundApi(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    EmulatorResponse home(EmulatorRequest request) {
+        return EmulatorResponse.text(200, "LearnQA playground emulator");
+    }
+
+    EmulatorResponse hello(EmulatorRequest request) {
+        String name = request.getParam("name");
+        Map<String, String> body = new HashMap<>();
+        body.put("answer", "Hello, " + (name == null ? "someone" : name));
+        return EmulatorResponse.json(200, body);
+    }
+
+    EmulatorResponse getText(EmulatorRequest request) {
+        return EmulatorResponse.text(200, "Hello, world");
+    }
+
+    EmulatorResponse checkType(EmulatorRequest request) {
+        return EmulatorResponse.text(200, "You requested a " + request.getMethod() + " request");
+    }
+
+    EmulatorResponse get500(EmulatorRequest request) {
+        return EmulatorResponse.text(500, "");
+    }
+
+    EmulatorResponse get303(EmulatorRequest request) {
+        return EmulatorResponse.redirect(303, baseUrl + "/");
+    }
+
+    EmulatorResponse longRedirect(EmulatorRequest request, String step) {
+        int next;
+        try {
+            next = step == null ? 1 : Integer.parseInt(step) + 1;
+        } catch (NumberFormatException e) {
+            return EmulatorResponse.text(404, "");
+        }
+        return next > REDIRECTS
+                ? EmulatorResponse.redirect(301, baseUrl + "/")
+                : EmulatorResponse.redirect(301, baseUrl + "/api/long_redirect/" + next);
+    }
+
+    EmulatorResponse showAllHeaders(EmulatorRequest request) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("requested_headers", request.getHeaders());
+        body.put("response_headers", new HashMap<String, String>());
+        return EmulatorResponse.json(200, body);
+    }
+
+    EmulatorResponse getAuthCookie(EmulatorRequest request) {
+        if (!AUTH_LOGIN.equals(request.getParam("login")) || !AUTH_PASSWORD.equals(request.getParam("password"))) {
+            return EmulatorResponse.text(500, "");
+        }
+        return EmulatorResponse.text(200, "").cookie("auth_cookie", newAuthCookie());
+    }
+
+    EmulatorResponse checkAuthCookie(EmulatorRequest request) {
+        String cookie = request.getCookie("auth_cookie");
+        return EmulatorResponse.text(200, cookie != null && authCookies.contains(cookie)
+                ? "You are authorized"
+                : "You are NOT authorized");
+    }
+
+    EmulatorResponse getSecretPassword(EmulatorRequest request) {
+        boolean valid = SUPER_ADMIN_LOGIN.equals(request.getParam("login"))
+                && SUPER_ADMIN_PASSWORD.equals(request.getParam("password"));
+        String cookie = valid ? newAuthCookie() : UUID.randomUUID().toString();
+        return EmulatorResponse.text(200, "").cookie("auth_cookie", cookie);
+    }
+
+    EmulatorResponse getJsonHomework(EmulatorRequest request) {
+        List<Map<String, String>> messages = new ArrayList<>();
+        messages.add(message("This is the first message", "2021-06-04 16:40:53"));
+        messages.add(message("And this is a second message", "2021-06-04 16:41:01"));
+        messages.add(message("And this is a third message", "2021-06-04 16:41:06"));
+        Map<String, Object> body = new HashMap<>();
+        body.put("messages", messages);
+        return EmulatorResponse.json(200, body);
+    }
+
+    EmulatorResponse longtimeJob(EmulatorRequest request) {
+        String token = request.getParam("token");
+        Map<String, Object> body = new LinkedHashMap<>();
+        if (token == null) {
+            token = UUID.randomUUID().toString().replace("-", "");
+            jobs.put(token, System.nanoTime() + TimeUnit.SECONDS.toNanos(JOB_SECONDS));
+            body.put("token", token);
+            body.put("seconds", JOB_SECONDS);
+            return EmulatorResponse.json(200, body);
+        }
+
+        Long readyAt = jobs.get(token);
+        if (readyAt == null) {
+            body.put("error", "No job linked to this token");
+            return EmulatorResponse.json(400, body);
+        }
+        if (System.nanoTime() < readyAt) {
+            body.put("status", "Job is NOT ready");
+        } else {
+            body.put("result", "42");
+            body.put("status", "Job is ready");
+        }
+        return EmulatorResponse.json(200, body);
+    }
+
+    EmulatorResponse map(EmulatorRequest request) {
+        return EmulatorResponse.text(200, "");
+    }
+
+    EmulatorResponse homeworkCookie(EmulatorRequest request) {
+        return EmulatorResponse.text(200, "").cookie("HomeWork", "hw_value");
+    }
+
+    EmulatorResponse homeworkHeader(EmulatorRequest request) {
+        Map<String, String> body = new HashMap<>();
+        body.put("success", "!");
+        return EmulatorResponse.json(200, body)
+                .header("x-secret-homework-header", "Some secret value")
+                .header("Cache-Control", "max-age=0")
+                .header("Expires", DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC)));
+    }
+
+    EmulatorResponse userAgentCheck(EmulatorRequest request) {
+        String agent = request.getHeader("user-agent");
+        agent = agent == null ? "" : agent;
+        boolean bot = agent.contains("Googlebot");
+
+        Map<String, String> body = new LinkedHashMap<>();
+        body.put("user_agent", agent);
+        body.put("platform", bot ? "Googlebot" : agent.contains("Mobile") ? "Mobile" : "Web");
+        body.put("browser", bot ? "Unknown" : agent.contains("Chrome") || agent.contains("CriOS") ? "Chrome" : "No");
+        body.put("device", bot ? "Unknown"
+                : agent.contains("Android") ? "Android"
+                : agent.contains("iPhone") ? "iPhone"
+                : agent.contains("iPad") ? "iOS"
+                : "No");
+        return EmulatorResponse.json(200, body);
+    }
+
+    private String newAuthCookie() {
+        String cookie = UUID.randomUUID().toString().replace("-", "");
+        authCookies.add(cookie);
+        return cookie;
+    }
+
+    private static Map<String, String> message(String text, String timestamp) {
+        Map<String, String> message = new LinkedHashMap<>();
+        message.put("message", text);
+        message.put("timestamp", timestamp);
+        return message;
+    }
+}
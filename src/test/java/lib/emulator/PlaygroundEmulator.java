@@ -0,0 +1,315 @@
+package lib.emulator;
+
+import lib.DaemonThreadFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * In-process HTTP/1.1 server answering like playground.learnqa.ru for the endpoints the
+ * suite uses. It listens on loopback ({@code api.emulator.port}, any free port by default),
+ * keeps connections alive and serves each connection on its own thread, at most
+ * {@code api.emulator.maxConnections} of them; further connections get a 503 and are closed.
+ * Headers are written by hand so names and values match the real server exactly.
+ */
+public final class PlaygroundEmulator implements Closeable {
+
+    private static final int IDLE_TIMEOUT_MILLIS = 10_000;
+    private static final int MAX_CONNECTIONS = Integer.getInteger("api.emulator.maxConnections", 256);
+    private static final String USER_PREFIX = "/api/user/";
+    private static final String LONG_REDIRECT_PREFIX = "/api/long_redirect/";
+
+    private static PlaygroundEmulator shared;
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService workers = new ThreadPoolExecutor(0, MAX_CONNECTIONS, 60L, TimeUnit.SECONDS,
+            new SynchronousQueue<>(), new DaemonThreadFactory("playground-emulator-"));
+    private final String baseUrl;
+    private final Map<String, Function<EmulatorRequest, EmulatorResponse>> routes = new HashMap<>();
+    private final UserApi users = new UserApi();
+    private final PlaygroundApi playground;
+    private volatile boolean running = true;
+
+    public PlaygroundEmulator(int port) {
+        try {
+            serverSocket = new ServerSocket();
+            serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 128);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't start playground emulator on port " + port, e);
+        }
+        baseUrl = "http://" + serverSocket.getInetAddress().getHostAddress() + ":" + serverSocket.getLocalPort();
+        playground = new PlaygroundApi(baseUrl);
+
+        routes.put("/", playground::home);
+        routes.put("/api/hello", playground::hello);
+        routes.put("/api/get_text", playground::getText);
+        routes.put("/api/check_type", playground::checkType);
+        routes.put("/api/get_500", playground::get500);
+        routes.put("/api/get_303", playground::get303);
+        routes.put("/api/long_redirect", request -> playground.longRedirect(request, null));
+        routes.put("/api/show_all_headers", playground::showAllHeaders);
+        routes.put("/api/get_auth_cookie", playground::getAuthCookie);
+        routes.put("/api/check_auth_cookie", playground::checkAuthCookie);
+        routes.put("/ajax/api/check_auth_cookie", playground::checkAuthCookie);
+        routes.put("/ajax/api/get_secret_password_homework", playground::getSecretPassword);
+        routes.put("/api/get_json_homework", playground::getJsonHomework);
+        routes.put("/ajax/api/longtime_job", playground::longtimeJob);
+        routes.put("/api/map", playground::map);
+        routes.put("/api/homework_cookie", playground::homeworkCookie);
+        routes.put("/api/homework_header", playground::homeworkHeader);
+        routes.put("/ajax/api/user_agent_check", playground::userAgentCheck);
+        routes.put("/api/user", users::create);
+        routes.put("/api/user/login", users::login);
+        routes.put("/api/user/auth", users::auth);
+
+        Thread acceptor = new Thread(this::accept, "playground-emulator-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * The emulator shared by the whole run, started on first use.
+     */
+    public static synchronized PlaygroundEmulator start() {
+        if (shared == null) {
+            shared = new PlaygroundEmulator(Integer.getInteger("api.emulator.port", 0));
+        }
+        return shared;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            // already closed
+        }
+        workers.shutdownNow();
+    }
+
+    EmulatorResponse handle(EmulatorRequest request) {
+        String path = request.getPath();
+        try {
+            Function<EmulatorRequest, EmulatorResponse> route = routes.get(path);
+            if (route != null) {
+                return route.apply(request);
+            }
+            if (path.startsWith(USER_PREFIX)) {
+                return users.user(request, path.substring(USER_PREFIX.length()));
+            }
+            if (path.startsWith(LONG_REDIRECT_PREFIX)) {
+                return playground.longRedirect(request, path.substring(LONG_REDIRECT_PREFIX.length()));
+            }
+            return EmulatorResponse.text(404, "");
+        } catch (RuntimeException e) {
+            return EmulatorResponse.text(500, String.valueOf(e));
+        }
+    }
+
+    private void accept() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                try {
+                    workers.execute(() -> serve(socket));
+                } catch (RejectedExecutionException e) {
+                    refuse(socket);
+                }
+            } catch (IOException e) {
+                if (running) {
+                    System.out.println("Playground emulator can't accept a connection: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (Socket connection = socket) {
+            connection.setSoTimeout(IDLE_TIMEOUT_MILLIS);
+            connection.setTcpNoDelay(true);
+            InputStream in = new BufferedInputStream(connection.getInputStream());
+            OutputStream out = new BufferedOutputStream(connection.getOutputStream());
+
+            while (running) {
+                String requestLine = readLine(in);
+                if (requestLine == null) {
+                    return;
+                }
+                if (requestLine.isEmpty()) {
+                    continue;
+                }
+                String[] parts = requestLine.split(" ");
+                if (parts.length != 3) {
+                    return;
+                }
+
+                Map<String, String> headers = new HashMap<>();
+                for (String line = readLine(in); line != null && !line.isEmpty(); line = readLine(in)) {
+                    int colon = line.indexOf(':');
+                    if (colon > 0) {
+                        headers.put(line.substring(0, colon).trim().toLowerCase(), line.substring(colon + 1).trim());
+                    }
+                }
+                String body;
+                try {
+                    body = new String(readBody(in, headers), StandardCharsets.UTF_8);
+                } catch (NumberFormatException e) {
+                    // the rest of the stream can't be framed, so answer and drop the connection
+                    write(out, EmulatorResponse.text(400, "Bad request: " + e.getMessage()), false, false);
+                    return;
+                }
+
+                EmulatorResponse response = handle(new EmulatorRequest(parts[0], parts[1], headers, body));
+                boolean keepAlive = "HTTP/1.1".equals(parts[2]) && !"close".equalsIgnoreCase(headers.get("connection"));
+                write(out, response, keepAlive, "HEAD".equals(parts[0]));
+                if (!keepAlive) {
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            // idle timeout or the client closed the connection
+        }
+    }
+
+    private static void refuse(Socket socket) {
+        try (Socket connection = socket) {
+            OutputStream out = new BufferedOutputStream(connection.getOutputStream());
+            write(out, EmulatorResponse.text(503, "Too many connections"), false, false);
+        } catch (IOException e) {
+            // the client is gone already
+        }
+    }
+
+    private static void write(OutputStream out, EmulatorResponse response, boolean keepAlive, boolean headOnly) throws IOException {
+        StringBuilder head = new StringBuilder(256)
+                .append("HTTP/1.1 ").append(response.getStatus()).append(' ').append(reason(response.getStatus())).append("\r\n")
+                .append("Date: ").append(DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC))).append("\r\n")
+                .append("Content-Type: ").append(response.getContentType()).append("\r\n")
+                .append("Content-Length: ").append(response.getBody().length).append("\r\n");
+        if (keepAlive) {
+            head.append("Connection: keep-alive\r\n")
+                    .append("Keep-Alive: timeout=").append(IDLE_TIMEOUT_MILLIS / 1000).append("\r\n");
+        } else {
+            head.append("Connection: close\r\n");
+        }
+        head.append("Server: Apache\r\n");
+        for (String[] header : response.getHeaders()) {
+            head.append(header[0]).append(": ").append(header[1]).append("\r\n");
+        }
+        head.append("\r\n");
+
+        out.write(head.toString().getBytes(StandardCharsets.ISO_8859_1));
+        if (!headOnly) {
+            out.write(response.getBody());
+        }
+        out.flush();
+    }
+
+    private static byte[] readBody(InputStream in, Map<String, String> headers) throws IOException {
+        if ("chunked".equalsIgnoreCase(headers.get("transfer-encoding"))) {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            while (true) {
+                String sizeLine = readLine(in);
+                if (sizeLine == null) {
+                    throw new EOFException("Truncated chunked body");
+                }
+                int semicolon = sizeLine.indexOf(';');
+                int size = parseLength((semicolon < 0 ? sizeLine : sizeLine.substring(0, semicolon)).trim(), 16);
+                if (size == 0) {
+                    for (String trailer = readLine(in); trailer != null && !trailer.isEmpty(); trailer = readLine(in)) {
+                        // trailers are ignored
+                    }
+                    return body.toByteArray();
+                }
+                body.write(readFully(in, size));
+                readLine(in);
+            }
+        }
+        String length = headers.get("content-length");
+        return length == null ? new byte[0] : readFully(in, parseLength(length.trim(), 10));
+    }
+
+    private static int parseLength(String value, int radix) {
+        int length = Integer.parseInt(value, radix);
+        if (length < 0) {
+            throw new NumberFormatException("Negative length " + value);
+        }
+        return length;
+    }
+
+    private static byte[] readFully(InputStream in, int length) throws IOException {
+        byte[] bytes = new byte[length];
+        int read = 0;
+        while (read < length) {
+            int count = in.read(bytes, read, length - read);
+            if (count < 0) {
+                throw new EOFException("Truncated request body");
+            }
+            read += count;
+        }
+        return bytes;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b < 0) {
+                return line.size() == 0 ? null : line.toString("ISO-8859-1");
+            }
+            if (b != '\r') {
+                line.write(b);
+            }
+        }
+        return line.toString("ISO-8859-1");
+    }
+
+    private static String reason(int status) {
+        switch (status) {
+            case 200:
+                return "OK";
+            case 301:
+                return "Moved Permanently";
+            case 303:
+                return "See Other";
+            case 400:
+                return "Bad Request";
+            case 404:
+                return "Not Found";
+            case 500:
+                return "Internal Server Error";
+            case 503:
+                return "Service Unavailable";
+            default:
+                return "Unknown";
+        }
+    }
+}
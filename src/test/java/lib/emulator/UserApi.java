@@ -0,0 +1,226 @@
+package lib.emulator;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@code /api/user} endpoints with the playground's messages and quirks: deleting a user
+ * deletes the authorized one whatever id is in the URL, and users 1 to 5 can't be deleted.
+ */
+final class UserApi {
+
+    private static final List<String> REQUIRED = Arrays.asList("email", "password", "username", "firstName", "lastName");
+    private static final int MAX_USERNAME_LENGTH = 250;
+
+    private final ConcurrentMap<Integer, Map<String, String>> users = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Integer> usersByEmail = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Session> sessions = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger(100000);
+
+    UserApi() {
+        seed(2, "vinkotov@example.com", "1234", "Vitaliy", "Vitalii", "Kotov");
+        seed(13456, "learnqa13456@example.com", "123", "learnqa13456", "learnqa", "learnqa");
+        seed(46754, "learnqa20221020170727@example.com", "123", "learnqa", "learnqa", "learnqa");
+        seed(46755, "learnqa20221020173228@example.com", "123", "learnqa", "learnqa", "learnqa");
+        seed(46793, "learnqa20221020183521@example.com", "123", "learnqa", "learnqa", "learnqa");
+    }
+
+    EmulatorResponse create(EmulatorRequest request) {
+        for (String field : REQUIRED) {
+            if (request.getParam(field) == null) {
+                return EmulatorResponse.text(400, "The following required params are missed: " + field);
+            }
+        }
+        String email = request.getParam("email");
+        EmulatorResponse invalid = validate(request.getParams());
+        if (invalid != null) {
+            return invalid;
+        }
+
+        int id = nextId.incrementAndGet();
+        if (usersByEmail.putIfAbsent(email, id) != null) {
+            return EmulatorResponse.text(400, "Users with email '" + email + "' already exists");
+        }
+        Map<String, String> user = new ConcurrentHashMap<>();
+        for (String field : REQUIRED) {
+            user.put(field, request.getParam(field));
+        }
+        users.put(id, user);
+
+        Map<String, String> body = new HashMap<>();
+        body.put("id", String.valueOf(id));
+        return EmulatorResponse.json(200, body);
+    }
+
+    EmulatorResponse login(EmulatorRequest request) {
+        Integer id = usersByEmail.get(String.valueOf(request.getParam("email")));
+        Map<String, String> user = id == null ? null : users.get(id);
+        if (user == null || !user.get("password").equals(request.getParam("password"))) {
+            return EmulatorResponse.text(400, "Invalid username/password supplied");
+        }
+
+        String sid = UUID.randomUUID().toString().replace("-", "");
+        String token = UUID.randomUUID().toString().replace("-", "");
+        sessions.put(sid, new Session(token, id));
+
+        Map<String, Integer> body = new HashMap<>();
+        body.put("user_id", id);
+        return EmulatorResponse.json(200, body)
+                .header("x-csrf-token", token)
+                .cookie("auth_sid", sid);
+    }
+
+    EmulatorResponse auth(EmulatorRequest request) {
+        Map<String, Integer> body = new HashMap<>();
+        body.put("user_id", authorizedUserId(request));
+        return EmulatorResponse.json(200, body);
+    }
+
+    EmulatorResponse user(EmulatorRequest request, String idSegment) {
+        int id;
+        try {
+            id = Integer.parseInt(idSegment);
+        } catch (NumberFormatException e) {
+            return EmulatorResponse.text(400, "Wrong user id");
+        }
+        switch (request.getMethod()) {
+            case "GET":
+                return get(request, id);
+            case "PUT":
+                return edit(request, id);
+            case "DELETE":
+                return delete(request, id);
+            default:
+                return EmulatorResponse.text(400, "Wrong HTTP method");
+        }
+    }
+
+    private EmulatorResponse get(EmulatorRequest request, int id) {
+        Map<String, String> user = users.get(id);
+        if (user == null) {
+            return EmulatorResponse.text(404, "User not found");
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        if (authorizedUserId(request) == id) {
+            body.put("id", String.valueOf(id));
+            body.put("username", user.get("username"));
+            body.put("email", user.get("email"));
+            body.put("firstName", user.get("firstName"));
+            body.put("lastName", user.get("lastName"));
+        } else {
+            body.put("username", user.get("username"));
+        }
+        return EmulatorResponse.json(200, body);
+    }
+
+    private EmulatorResponse edit(EmulatorRequest request, int id) {
+        int authorized = authorizedUserId(request);
+        if (authorized == 0) {
+            return EmulatorResponse.text(400, "Auth token not supplied");
+        }
+        if (authorized != id) {
+            return error("This user can only edit their own data.");
+        }
+        Map<String, String> user = users.get(id);
+        if (user == null) {
+            return EmulatorResponse.text(404, "User not found");
+        }
+        EmulatorResponse invalid = validate(request.getParams());
+        if (invalid != null) {
+            return invalid;
+        }
+        for (String field : new String[]{"firstName", "lastName"}) {
+            String value = request.getParam(field);
+            if (value != null && value.length() < 2) {
+                return error("Too short value for field " + field);
+            }
+        }
+
+        String email = request.getParam("email");
+        if (email != null && !email.equals(user.get("email"))) {
+            if (usersByEmail.putIfAbsent(email, id) != null) {
+                return EmulatorResponse.text(400, "Users with email '" + email + "' already exists");
+            }
+            usersByEmail.remove(user.get("email"), id);
+        }
+        for (String field : REQUIRED) {
+            String value = request.getParam(field);
+            if (value != null) {
+                user.put(field, value);
+            }
+        }
+        return EmulatorResponse.text(200, "");
+    }
+
+    private EmulatorResponse delete(EmulatorRequest request, int id) {
+        if (id >= 1 && id <= 5) {
+            return EmulatorResponse.text(400, "Please, do not delete test users with ID 1, 2, 3, 4 or 5.");
+        }
+        int authorized = authorizedUserId(request);
+        if (authorized == 0) {
+            return EmulatorResponse.text(400, "Auth token not supplied");
+        }
+        Map<String, String> user = users.remove(authorized);
+        if (user != null) {
+            usersByEmail.remove(user.get("email"), authorized);
+        }
+        return EmulatorResponse.text(200, "");
+    }
+
+    private EmulatorResponse validate(Map<String, String> params) {
+        String email = params.get("email");
+        if (email != null && !email.contains("@")) {
+            return EmulatorResponse.text(400, "Invalid email format");
+        }
+        String username = params.get("username");
+        if (username != null && username.length() < 2) {
+            return EmulatorResponse.text(400, "The value of 'username' field is too short");
+        }
+        if (username != null && username.length() > MAX_USERNAME_LENGTH) {
+            return EmulatorResponse.text(400, "The value of 'username' field is too long");
+        }
+        return null;
+    }
+
+    private int authorizedUserId(EmulatorRequest request) {
+        String sid = request.getCookie("auth_sid");
+        String token = request.getHeader("x-csrf-token");
+        Session session = sid == null ? null : sessions.get(sid);
+        return session != null && session.token.equals(token) ? session.userId : 0;
+    }
+
+    private static EmulatorResponse error(String message) {
+        Map<String, String> body = new HashMap<>();
+        body.put("error", message);
+        return EmulatorResponse.json(400, body);
+    }
+
+    private void seed(int id, String email, String password, String username, String firstName, String lastName) {
+        Map<String, String> user = new ConcurrentHashMap<>();
+        user.put("email", email);
+        user.put("password", password);
+        user.put("username", username);
+        user.put("firstName", firstName);
+        user.put("lastName", lastName);
+        users.put(id, user);
+        usersByEmail.put(email, id);
+    }
+
+    private static final class Session {
+
+        private final String token;
+        private final int userId;
+
+        private Session(String token, int userId) {
+            this.token = token;
+            this.userId = userId;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package lib.filters;
+
+import io.qameta.allure.Allure;
+import io.qameta.allure.attachment.DefaultAttachmentProcessor;
+import io.qameta.allure.attachment.FreemarkerAttachmentRenderer;
+import io.qameta.allure.attachment.http.HttpRequestAttachment;
+import io.qameta.allure.attachment.http.HttpResponseAttachment;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.filter.OrderedFilter;
+import io.restassured.internal.NameAndValue;
+import io.restassured.internal.support.Prettifier;
+import io.restassured.parsing.Parser;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import lib.metrics.MetricsReport;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drop-in for {@code AllureRestAssured}, with the same attachments. {@code api.allure.capture=all}
+ * (the default) attaches every exchange as it happens. {@code failures} keeps the exchanges of
+ * the running test in memory, the latest {@code api.allure.maxExchanges} of them, and renders
+ * them only when the test fails; {@code sampled} also keeps them for {@code api.allure.sampleRate}
+ * of the passing tests, picked by test id so reruns sample the same tests. Kept exchanges are
+ * written by {@link ApiFiltersExtension} after the test, on the test rather than on the step that
+ * made the request. Bodies longer than {@code api.allure.maxBodyLength} characters are cut in
+ * every mode. Counters go to {@code allure-capture.json}.
+ *
+ * <p>{@link #withoutResponseBodies()} leaves the response body unread, for callers that stream it.
+ */
+public class AllureCaptureFilter implements OrderedFilter {
+
+    // Outside the concurrency limit and latency filters, so rendering holds no slot and isn't timed
+    public static final int ORDER = ConcurrencyLimitFilter.ORDER - 1;
+
+    private static final String MODE = System.getProperty("api.allure.capture", "all");
+    private static final boolean BUFFERED = !"all".equals(MODE);
+    private static final double SAMPLE_RATE = "sampled".equals(MODE)
+            ? Double.parseDouble(System.getProperty("api.allure.sampleRate", "0.1"))
+            : 0;
+    private static final int MAX_EXCHANGES = Integer.getInteger("api.allure.maxExchanges", 20);
+    private static final int MAX_BODY_LENGTH = Integer.getInteger("api.allure.maxBodyLength", 65536);
+
+    private static final ConcurrentMap<String, Deque<Exchange>> BUFFERS = new ConcurrentHashMap<>();
+    private static final LongAdder EXCHANGES = new LongAdder();
+    private static final LongAdder WRITTEN = new LongAdder();
+    private static final LongAdder DISCARDED = new LongAdder();
+    private static final LongAdder TRUNCATED = new LongAdder();
+
+    static {
+        if (!"all".equals(MODE) && !"failures".equals(MODE) && !"sampled".equals(MODE)) {
+            throw new IllegalArgumentException("api.allure.capture must be all, failures or sampled, not " + MODE);
+        }
+        MetricsReport.register("allure-capture.json", AllureCaptureFilter::report);
+    }
+
+    private final boolean responseBodies;
+
+    public AllureCaptureFilter() {
+        this(true);
+    }
+
+    private AllureCaptureFilter(boolean responseBodies) {
+        this.responseBodies = responseBodies;
+    }
+
+    /** Attaches the status and headers of responses but not their bodies, so nothing reads them before the caller. */
+    public static AllureCaptureFilter withoutResponseBodies() {
+        return new AllureCaptureFilter(false);
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec, FilterContext ctx) {
+        Exchange exchange = new Exchange(requestSpec);
+        Optional<String> testCase = Allure.getLifecycle().getCurrentTestCase();
+        if (!BUFFERED) {
+            exchange.attachRequest();
+        }
+        Response response = ctx.next(requestSpec, responseSpec);
+        exchange.setResponse(response, responseBodies, null);
+        capture(exchange, testCase);
+        return response;
+    }
+
+    /**
+     * Captures a response that a filter outside this one answered without calling the server,
+     * such as a cache hit, if the request has this filter. The response attachment is marked
+     * with {@code servedFrom}.
+     */
+    public static void captureServed(FilterableRequestSpecification requestSpec, Response response, String servedFrom) {
+        for (Filter filter : requestSpec.getDefinedFilters()) {
+            if (filter instanceof AllureCaptureFilter) {
+                Exchange exchange = new Exchange(requestSpec);
+                if (!BUFFERED) {
+                    exchange.attachRequest();
+                }
+                exchange.setResponse(response, ((AllureCaptureFilter) filter).responseBodies, servedFrom);
+                capture(exchange, Allure.getLifecycle().getCurrentTestCase());
+                return;
+            }
+        }
+    }
+
+    private static void capture(Exchange exchange, Optional<String> testCase) {
+        EXCHANGES.increment();
+        if (!BUFFERED) {
+            exchange.attachResponse();
+            WRITTEN.increment();
+        } else if (testCase.isPresent()) {
+            Deque<Exchange> buffer = BUFFERS.computeIfAbsent(testCase.get(), uuid -> new ArrayDeque<>());
+            synchronized (buffer) {
+                buffer.addLast(exchange);
+                if (buffer.size() > MAX_EXCHANGES) {
+                    buffer.removeFirst();
+                    DISCARDED.increment();
+                }
+            }
+        } else {
+            DISCARDED.increment();
+        }
+    }
+
+    /**
+     * Writes or drops what the current test captured. Must run on the test's thread while its
+     * Allure test case is still open.
+     */
+    static void testFinished(String testId, boolean failed) {
+        Optional<String> testCase = Allure.getLifecycle().getCurrentTestCase();
+        if (!BUFFERED || !testCase.isPresent()) {
+            return;
+        }
+        Deque<Exchange> buffer = BUFFERS.remove(testCase.get());
+        if (buffer == null) {
+            return;
+        }
+        synchronized (buffer) {
+            if (failed || sampled(testId)) {
+                for (Exchange exchange : buffer) {
+                    exchange.attachRequest();
+                    exchange.attachResponse();
+                }
+                WRITTEN.add(buffer.size());
+            } else {
+                DISCARDED.add(buffer.size());
+            }
+        }
+    }
+
+    private static boolean sampled(String testId) {
+        return (testId.hashCode() & Integer.MAX_VALUE) % 10_000 < SAMPLE_RATE * 10_000;
+    }
+
+    private static Map<String, Object> report() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("mode", MODE);
+        report.put("exchanges", EXCHANGES.sum());
+        report.put("written", WRITTEN.sum());
+        report.put("discarded", DISCARDED.sum());
+        report.put("truncatedBodies", TRUNCATED.sum());
+        return report;
+    }
+
+    private static String truncate(String body) {
+        if (body == null || body.length() <= MAX_BODY_LENGTH) {
+            return body;
+        }
+        TRUNCATED.increment();
+        return body.substring(0, MAX_BODY_LENGTH) + "\n... [" + (body.length() - MAX_BODY_LENGTH) + " more characters cut]";
+    }
+
+    private static Map<String, String> toMap(Iterable<? extends NameAndValue> items) {
+        Map<String, String> map = new HashMap<>();
+        for (NameAndValue item : items) {
+            map.put(item.getName(), item.getValue());
+        }
+        return map;
+    }
+
+    private static String prettify(String body, String contentType) {
+        if (body == null || body.isEmpty() || contentType == null) {
+            return body;
+        }
+        try {
+            Parser parser = Parser.fromContentType(contentType);
+            return parser == null ? body : new Prettifier().prettify(body, parser);
+        } catch (RuntimeException e) {
+            // a truncated or malformed body is shown as it came
+            return body;
+        }
+    }
+
+    /** Raw copy of one request and its response; rendering waits until it is attached. */
+    private static final class Exchange {
+
+        private final String method;
+        private final String url;
+        private final Map<String, String> requestHeaders;
+        private final Map<String, String> requestCookies;
+        private final String requestBody;
+        private final String requestContentType;
+        private String statusLine;
+        private int statusCode;
+        private Map<String, String> responseHeaders;
+        private String responseBody;
+        private String responseContentType;
+        private String servedFrom;
+
+        Exchange(FilterableRequestSpecification request) {
+            method = request.getMethod();
+            url = request.getURI();
+            requestHeaders = toMap(request.getHeaders());
+            requestCookies = toMap(request.getCookies());
+            requestBody = request.getBody() == null ? null : truncate(RequestKeys.body(request));
+            requestContentType = request.getContentType();
+        }
+
+        void setResponse(Response response, boolean withBody, String servedFrom) {
+            this.servedFrom = servedFrom;
+            statusLine = response.getStatusLine();
+            statusCode = response.getStatusCode();
+            responseHeaders = toMap(response.getHeaders());
+            responseBody = withBody ? truncate(response.asString()) : "[streamed to the caller, not captured]";
+            responseContentType = response.getContentType();
+        }
+
+        void attachRequest() {
+            HttpRequestAttachment.Builder request = HttpRequestAttachment.Builder.create("Request", url)
+                    .setMethod(method)
+                    .setHeaders(requestHeaders)
+                    .setCookies(requestCookies);
+            if (requestBody != null) {
+                request.setBody(prettify(requestBody, requestContentType));
+            }
+            new DefaultAttachmentProcessor().addAttachment(request.build(),
+                    new FreemarkerAttachmentRenderer("http-request.ftl"));
+        }
+
+        void attachResponse() {
+            String name = servedFrom == null ? statusLine : statusLine + " (served from " + servedFrom + ")";
+            HttpResponseAttachment response = HttpResponseAttachment.Builder.create(name)
+                    .setResponseCode(statusCode)
+                    .setHeaders(responseHeaders)
+                    .setBody(prettify(responseBody, responseContentType))
+                    .build();
+            new DefaultAttachmentProcessor().addAttachment(response,
+                    new FreemarkerAttachmentRenderer("http-response.ftl"));
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package lib.filters;
+
+import io.restassured.RestAssured;
+
+/**
+ * Filters added to every Rest Assured request of the run, both through
+ * {@link lib.ApiCoreRequests} and through plain {@code RestAssured.get(...)} calls.
+ * Installed once by {@link ApiFiltersExtension} or by the first {@code ApiCoreRequests}.
+ */
+public final class ApiFilters {
+
+    private static boolean installed;
+
+    private ApiFilters() {
+    }
+
+    public static synchronized void install() {
+        if (installed) {
+            return;
+        }
+        installed = true;
+        RestAssured.filters(new LatencyFilter());
+        if (ConcurrencyLimitFilter.isEnabled()) {
+            RestAssured.filters(new ConcurrencyLimitFilter());
+        }
+        if (RateLimitFilter.isEnabled()) {
+            RestAssured.filters(new RateLimitFilter());
+        }
+        if (CassetteFilter.isEnabled()) {
+            RestAssured.filters(new CassetteFilter());
+        }
+        if (SingleFlightFilter.isEnabled()) {
+            RestAssured.filters(new SingleFlightFilter());
+        }
+        if (ResponseCacheFilter.isEnabled()) {
+            RestAssured.filters(new ResponseCacheFilter());
+        }
+    }
+}
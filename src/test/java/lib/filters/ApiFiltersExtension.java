@@ -0,0 +1,23 @@
+package lib.filters;
+
+import lib.allure.AsyncResultsWriter;
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+public class ApiFiltersExtension implements BeforeAllCallback, AfterTestExecutionCallback {
+
+    @Override
+    public void beforeAll(ExtensionContext context) {
+        if (context.getConfigurationParameter("junit.jupiter.execution.parallel.enabled", Boolean::parseBoolean).orElse(false)) {
+            CassetteFilter.requireSequential("parallel test execution");
+        }
+        AsyncResultsWriter.install();
+        ApiFilters.install();
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        AllureCaptureFilter.testFinished(context.getUniqueId(), context.getExecutionException().isPresent());
+    }
+}
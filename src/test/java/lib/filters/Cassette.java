@@ -0,0 +1,219 @@
+package lib.filters;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Recorded interactions in two files. {@code <name>.data} is append-only, one record per
+ * interaction: length, key and {@link StoredResponse}. {@code <name>.index} is a memory-mapped
+ * open-addressing table of key hash and record offset, so a lookup touches a few slots and
+ * one record. A record added again under the same key replaces the older one in the index.
+ * If the index is missing or behind the data file, for example after a crash, it is rebuilt
+ * from the data.
+ */
+final class Cassette implements Closeable {
+
+    private static final int MAGIC = 0x43415331;
+    private static final int HEADER_BYTES = 16;
+    private static final int SLOT_BYTES = 16;
+
+    private final Path dataFile;
+    private final FileChannel data;
+    private final FileChannel indexChannel;
+    private final MappedByteBuffer index;
+    private final int slots;
+    private final boolean writable;
+    private MappedByteBuffer records;
+    private int used;
+
+    private Cassette(Path dataFile, Path indexFile, boolean writable, int requestedSlots) throws IOException {
+        this.dataFile = dataFile;
+        this.writable = writable;
+        if (writable) {
+            Files.createDirectories(dataFile.toAbsolutePath().getParent());
+            data = FileChannel.open(dataFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } else {
+            data = FileChannel.open(dataFile, StandardOpenOption.READ);
+        }
+
+        int existingSlots = 0;
+        if (Files.exists(indexFile) && Files.size(indexFile) >= HEADER_BYTES) {
+            try (FileChannel existing = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                existing.read(header, 0);
+                if (header.getInt(0) == MAGIC) {
+                    existingSlots = header.getInt(4);
+                }
+            }
+        }
+        boolean fresh = existingSlots == 0;
+        slots = fresh ? Integer.highestOneBit(Math.max(requestedSlots, 64) - 1) << 1 : existingSlots;
+
+        // The index is rebuilt in place, so it is opened for writing even when replaying
+        indexChannel = FileChannel.open(indexFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) slots * SLOT_BYTES);
+        if (fresh) {
+            for (int i = 0; i < HEADER_BYTES + slots * SLOT_BYTES; i += 8) {
+                index.putLong(i, 0);
+            }
+            index.putInt(0, MAGIC);
+            index.putInt(4, slots);
+        } else {
+            for (int slot = 0; slot < slots; slot++) {
+                if (index.getLong(HEADER_BYTES + slot * SLOT_BYTES) != 0) {
+                    used++;
+                }
+            }
+        }
+        catchUp();
+    }
+
+    static Cassette open(Path directory, String name, boolean writable, int slots) {
+        Path dataFile = directory.resolve(name + ".data");
+        Path indexFile = directory.resolve(name + ".index");
+        if (!writable && !Files.exists(dataFile)) {
+            throw new IllegalStateException("No cassette to replay at " + dataFile.toAbsolutePath());
+        }
+        try {
+            return new Cassette(dataFile, indexFile, writable, slots);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't open cassette " + dataFile, e);
+        }
+    }
+
+    synchronized void put(String key, StoredResponse response) {
+        if (!writable) {
+            throw new IllegalStateException("Cassette " + dataFile + " is open for replay only");
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0);
+            StoredResponse.writeString(out, key);
+            response.writeTo(out);
+            out.flush();
+
+            ByteBuffer record = ByteBuffer.wrap(bytes.toByteArray());
+            record.putInt(0, record.capacity() - 4);
+            long offset = data.size();
+            long position = offset;
+            while (record.hasRemaining()) {
+                position += data.write(record, position);
+            }
+            link(hash(key), offset);
+            index.putLong(8, position);
+            records = null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't append to cassette " + dataFile, e);
+        }
+    }
+
+    StoredResponse get(String key) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        long hash = hash(key);
+        ByteBuffer view = records().duplicate();
+        for (int probe = 0, slot = (int) hash & (slots - 1); probe < slots; probe++, slot = (slot + 1) & (slots - 1)) {
+            long slotHash = index.getLong(HEADER_BYTES + slot * SLOT_BYTES);
+            if (slotHash == 0) {
+                return null;
+            }
+            if (slotHash != hash) {
+                continue;
+            }
+            view.position((int) index.getLong(HEADER_BYTES + slot * SLOT_BYTES + 8) + 4);
+            byte[] storedKey = new byte[view.getInt()];
+            view.get(storedKey);
+            if (Arrays.equals(storedKey, keyBytes)) {
+                return StoredResponse.readFrom(view);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            index.force();
+            if (writable) {
+                data.force(false);
+            }
+            indexChannel.close();
+            data.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't close cassette " + dataFile, e);
+        }
+    }
+
+    private synchronized ByteBuffer records() {
+        if (records == null) {
+            try {
+                records = data.map(FileChannel.MapMode.READ_ONLY, 0, data.size());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Can't map cassette " + dataFile, e);
+            }
+        }
+        return records;
+    }
+
+    private void catchUp() throws IOException {
+        long indexed = index.getLong(8);
+        long size = data.size();
+        if (indexed >= size) {
+            return;
+        }
+        ByteBuffer view = data.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        long offset = indexed;
+        while (offset + 4 <= size) {
+            int length = view.getInt((int) offset);
+            if (length <= 0 || offset + 4 + length > size) {
+                // torn write at the end of the file, the next record overwrites it in the index
+                break;
+            }
+            view.position((int) offset + 4);
+            link(hash(StoredResponse.readString(view)), offset);
+            offset += 4 + length;
+        }
+        index.putLong(8, offset);
+    }
+
+    private void link(long hash, long offset) {
+        for (int probe = 0, slot = (int) hash & (slots - 1); probe < slots; probe++, slot = (slot + 1) & (slots - 1)) {
+            int position = HEADER_BYTES + slot * SLOT_BYTES;
+            long slotHash = index.getLong(position);
+            if (slotHash == 0 || slotHash == hash) {
+                if (slotHash == 0) {
+                    if (used + 1 > slots * 3 / 4) {
+                        throw new IllegalStateException("Cassette index " + dataFile + " is full, raise api.cassette.indexSlots");
+                    }
+                    used++;
+                }
+                index.putLong(position + 8, offset);
+                index.putLong(position, hash);
+                return;
+            }
+        }
+        throw new IllegalStateException("Cassette index " + dataFile + " is full, raise api.cassette.indexSlots");
+    }
+
+    private static long hash(String key) {
+        // FNV-1a over the chars, then a final mix so neighbouring keys spread over the table
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash = (hash ^ key.charAt(i)) * 0x100000001b3L;
+        }
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash == 0 ? 1 : hash;
+    }
+}
@@ -0,0 +1,92 @@
+package lib.filters;
+
+import io.restassured.filter.FilterContext;
+import io.restassured.filter.OrderedFilter;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import lib.ShutdownSequence;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records every request and response into a {@link Cassette} ({@code -Dapi.cassette=record})
+ * or answers from it without calling the server ({@code -Dapi.cassette=replay}). The cassette
+ * is {@code api.cassette.dir}/{@code api.cassette.name}. Identical requests are told apart by
+ * their occurrence in the run: the third {@code GET /api/user/2} replays the third recorded
+ * answer, or the last one recorded when the replaying run makes more calls than the recording.
+ * That order is only stable when tests run one at a time, so cassettes refuse concurrent runs.
+ */
+public class CassetteFilter implements OrderedFilter {
+
+    // Outside the rate limit and latency filters, so replayed calls neither wait nor end up in latency.json
+    public static final int ORDER = RateLimitFilter.ORDER - 1;
+
+    private static final String MODE = System.getProperty("api.cassette", "off");
+    private static final Path DIRECTORY = Paths.get(System.getProperty("api.cassette.dir", "src/test/resources/cassettes"));
+    private static final String NAME = System.getProperty("api.cassette.name", "playground");
+    private static final int INDEX_SLOTS = Integer.getInteger("api.cassette.indexSlots", 1 << 16);
+
+    private final Cassette cassette;
+    private final boolean replay;
+    private final CassetteKeys keys = new CassetteKeys();
+    private final ConcurrentMap<String, AtomicInteger> occurrences = new ConcurrentHashMap<>();
+
+    public CassetteFilter() {
+        if (!isEnabled()) {
+            throw new IllegalStateException("Unknown api.cassette mode '" + MODE + "', expected record or replay");
+        }
+        replay = isReplaying();
+        cassette = Cassette.open(DIRECTORY, NAME, !replay, INDEX_SLOTS);
+        ShutdownSequence.add(ShutdownSequence.Stage.CLOSE_RECORDINGS, cassette::close);
+    }
+
+    public static boolean isEnabled() {
+        return "record".equals(MODE) || "replay".equals(MODE);
+    }
+
+    /** Whether responses come from the cassette, so no request reaches a server. */
+    public static boolean isReplaying() {
+        return "replay".equals(MODE);
+    }
+
+    /**
+     * Fails when a cassette is in use: requests of tests running side by side are numbered in
+     * whatever order they happen to run, so replay would hand responses to the wrong tests.
+     */
+    public static void requireSequential(String runner) {
+        if (isEnabled()) {
+            throw new IllegalStateException("api.cassette=" + MODE + " can't be used with " + runner
+                    + ", cassettes match requests by the order they are made in");
+        }
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec, FilterContext ctx) {
+        String request = keys.of(requestSpec);
+        int occurrence = occurrences.computeIfAbsent(request, key -> new AtomicInteger()).getAndIncrement();
+
+        if (replay) {
+            for (int i = occurrence; i >= 0; i--) {
+                StoredResponse stored = cassette.get(request + "\n#" + i);
+                if (stored != null) {
+                    return stored.toResponse();
+                }
+            }
+            throw new IllegalStateException("Cassette " + NAME + " has no response for " + requestSpec.getMethod() + " " + requestSpec.getURI());
+        }
+
+        Response response = ctx.next(requestSpec, responseSpec);
+        cassette.put(request + "\n#" + occurrence, StoredResponse.of(response));
+        return response;
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
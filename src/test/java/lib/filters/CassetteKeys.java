@@ -0,0 +1,86 @@
+package lib.filters;
+
+import io.restassured.http.Cookie;
+import io.restassured.http.Header;
+import io.restassured.specification.FilterableRequestSpecification;
+import lib.DataGenerator;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cassette key of a request: method, path, sorted query, headers, cookies and body. The host
+ * is left out, so a cassette recorded against the playground replays against any base URL.
+ * Values that differ between runs are replaced by placeholders: {@code auth_sid} and
+ * {@code auth_cookie} cookies, the {@code x-csrf-token} header and the emails and usernames
+ * made by {@link DataGenerator} in this run. Generated values are numbered by first appearance,
+ * so requests for different pooled users never share a key.
+ */
+final class CassetteKeys {
+
+    private static final Pattern GENERATED = Pattern.compile(Pattern.quote(DataGenerator.getRunPrefix()) + "[0-9a-z]+");
+    private static final List<String> SESSION_COOKIES = Arrays.asList("auth_sid", "auth_cookie");
+    private static final String TOKEN_HEADER = "x-csrf-token";
+
+    private final ConcurrentMap<String, Integer> generated = new ConcurrentHashMap<>();
+    private final AtomicInteger nextNumber = new AtomicInteger();
+
+    String of(FilterableRequestSpecification request) {
+        StringBuilder key = new StringBuilder(256)
+                .append(request.getMethod()).append(' ')
+                .append(pathAndQuery(request.getURI()));
+
+        List<String> headers = new ArrayList<>();
+        for (Header header : request.getHeaders()) {
+            String name = header.getName().toLowerCase();
+            headers.add(name + ": " + (name.equals(TOKEN_HEADER) ? "{" + name + "}" : header.getValue()));
+        }
+        Collections.sort(headers);
+        for (String header : headers) {
+            key.append('\n').append(header);
+        }
+
+        List<String> cookies = new ArrayList<>();
+        for (Cookie cookie : request.getCookies()) {
+            String name = cookie.getName();
+            cookies.add(name + "=" + (SESSION_COOKIES.contains(name) ? "{" + name + "}" : cookie.getValue()));
+        }
+        Collections.sort(cookies);
+        if (!cookies.isEmpty()) {
+            key.append("\ncookie: ").append(String.join("; ", cookies));
+        }
+
+        key.append("\n\n").append(RequestKeys.body(request));
+        return replaceGenerated(key);
+    }
+
+    private String replaceGenerated(CharSequence key) {
+        Matcher matcher = GENERATED.matcher(key);
+        StringBuffer replaced = new StringBuffer(key.length());
+        while (matcher.find()) {
+            int number = generated.computeIfAbsent(matcher.group(), value -> nextNumber.getAndIncrement());
+            matcher.appendReplacement(replaced, "{generated-" + number + "}");
+        }
+        return matcher.appendTail(replaced).toString();
+    }
+
+    private static String pathAndQuery(String url) {
+        URI uri = URI.create(url);
+        String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+        String query = uri.getRawQuery();
+        if (query == null || query.isEmpty()) {
+            return path;
+        }
+        String[] params = query.split("&");
+        Arrays.sort(params);
+        return path + "?" + String.join("&", params);
+    }
+}
@@ -0,0 +1,95 @@
+package lib.filters;
+
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.response.Response;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CassetteTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testRecordedResponsesReplayAfterReopening() {
+        try (Cassette cassette = Cassette.open(directory, "round-trip", true, 64)) {
+            cassette.put("GET /api/hello", stored(200, "{\"answer\":\"Hello, someone\"}"));
+            cassette.put("GET /api/get_500", stored(500, ""));
+            cassette.put("GET /api/hello", stored(200, "{\"answer\":\"Hello, again\"}"));
+        }
+
+        try (Cassette cassette = Cassette.open(directory, "round-trip", false, 64)) {
+            Response hello = cassette.get("GET /api/hello").toResponse();
+            assertEquals(200, hello.statusCode());
+            assertEquals("{\"answer\":\"Hello, again\"}", hello.asString(), "A key recorded twice replays the later record");
+            assertEquals("application/json", hello.header("Content-Type"));
+            assertEquals(500, cassette.get("GET /api/get_500").toResponse().statusCode());
+            assertNull(cassette.get("GET /api/not_recorded"));
+        }
+    }
+
+    @Test
+    public void testMissingIndexIsRebuiltFromTheData() throws Exception {
+        try (Cassette cassette = Cassette.open(directory, "rebuilt", true, 64)) {
+            for (int i = 0; i < 20; i++) {
+                cassette.put("GET /api/user/" + i, stored(200, "{\"id\":" + i + "}"));
+            }
+        }
+        Files.delete(directory.resolve("rebuilt.index"));
+
+        try (Cassette cassette = Cassette.open(directory, "rebuilt", false, 64)) {
+            for (int i = 0; i < 20; i++) {
+                assertEquals("{\"id\":" + i + "}", cassette.get("GET /api/user/" + i).toResponse().asString());
+            }
+        }
+    }
+
+    @Test
+    public void testTornRecordAtTheEndIsIgnored() throws Exception {
+        try (Cassette cassette = Cassette.open(directory, "torn", true, 64)) {
+            cassette.put("GET /api/hello", stored(200, "hello"));
+        }
+        Files.delete(directory.resolve("torn.index"));
+        // The length of a record whose bytes never made it to disk
+        Files.write(directory.resolve("torn.data"), new byte[]{0, 0, 1, 0, 'x'}, StandardOpenOption.APPEND);
+
+        try (Cassette cassette = Cassette.open(directory, "torn", true, 64)) {
+            assertEquals("hello", cassette.get("GET /api/hello").toResponse().asString());
+            cassette.put("GET /api/hello", stored(200, "hello again"));
+            assertEquals("hello again", cassette.get("GET /api/hello").toResponse().asString());
+        }
+    }
+
+    @Test
+    public void testFullIndexFailsInsteadOfLosingRecords() {
+        try (Cassette cassette = Cassette.open(directory, "full", true, 64)) {
+            // three quarters of the slots may be used
+            for (int i = 0; i < 48; i++) {
+                cassette.put("GET /api/user/" + i, stored(200, ""));
+            }
+            IllegalStateException full = assertThrows(IllegalStateException.class,
+                    () -> cassette.put("GET /api/user/48", stored(200, "")));
+            assertTrue(full.getMessage().contains("api.cassette.indexSlots"), full.getMessage());
+        }
+    }
+
+    @Test
+    public void testReplayWithoutRecordingFails() {
+        assertThrows(IllegalStateException.class, () -> Cassette.open(directory, "never-recorded", false, 64));
+    }
+
+    private static StoredResponse stored(int status, String body) {
+        return StoredResponse.of(new ResponseBuilder()
+                .setStatusCode(status)
+                .setStatusLine("HTTP/1.1 " + status)
+                .setHeader("Content-Type", "application/json")
+                .setBody(body)
+                .build());
+    }
+}
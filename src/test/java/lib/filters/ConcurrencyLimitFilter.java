@@ -0,0 +1,254 @@
+package lib.filters;
+
+import io.restassured.filter.FilterContext;
+import io.restassured.filter.OrderedFilter;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import lib.metrics.Endpoints;
+import lib.metrics.LatencyHistogram;
+import lib.metrics.MetricsReport;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Caps the number of calls in flight with a limit that adapts to the server, AIMD style, when
+ * run with {@code -Dapi.concurrencyLimit=true}. A call that gets no answer or answers 429 or 503
+ * cuts the limit by {@code api.concurrencyLimit.backoff}, and so does one that brings the moving
+ * average latency of its endpoint over {@code api.concurrencyLimit.tolerance} times the fastest
+ * call of the last one or two {@code api.concurrencyLimit.windowSeconds} and by at least
+ * {@code api.concurrencyLimit.minSlowdownMillis}, so jitter of fast calls doesn't count; at most
+ * one cut per round trip. Other errors such as a 500 are the endpoint's own answer, not a sign
+ * of load, and don't count.
+ * Every other call raises it by one over the limit, so a full round of successful calls adds one,
+ * as long as the limit is actually being used. The limit starts at
+ * {@code api.concurrencyLimit.initial} and stays between {@code .min} and {@code .max}.
+ *
+ * <p>Calls over the limit wait for a free slot. The limit over time, the time spent waiting
+ * and the reasons for each cut go to {@code concurrency-limit.json}.
+ */
+public class ConcurrencyLimitFilter implements OrderedFilter {
+
+    // Outside the latency filter, so time spent waiting for a slot isn't timed as network
+    public static final int ORDER = LatencyFilter.ORDER - 1;
+
+    private static final boolean ENABLED = Boolean.getBoolean("api.concurrencyLimit");
+    private static final int INITIAL = Integer.getInteger("api.concurrencyLimit.initial", 8);
+    private static final int MIN = Integer.getInteger("api.concurrencyLimit.min", 1);
+    private static final int MAX = Integer.getInteger("api.concurrencyLimit.max", 200);
+    private static final double TOLERANCE = Double.parseDouble(System.getProperty("api.concurrencyLimit.tolerance", "2.0"));
+    private static final double BACKOFF = Double.parseDouble(System.getProperty("api.concurrencyLimit.backoff", "0.75"));
+    private static final long MIN_SLOWDOWN_NANOS = TimeUnit.MILLISECONDS.toNanos(Long.getLong("api.concurrencyLimit.minSlowdownMillis", 5L));
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(Long.getLong("api.concurrencyLimit.windowSeconds", 30L));
+    private static final int TIMELINE_POINTS = Integer.getInteger("api.concurrencyLimit.timelinePoints", 10_000);
+
+    private final long minSlowdownNanos;
+    private final long started = System.nanoTime();
+    private final Map<String, Baseline> baselines = new HashMap<>();
+    private final List<Map<String, Object>> timeline = new ArrayList<>();
+    private final LatencyHistogram waits = new LatencyHistogram();
+    // Fair, so calls get their slots in the order they asked for them
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition slotFreed = lock.newCondition();
+
+    // Guarded by lock
+    private double limit;
+    private int inFlight;
+    private long lastDecrease = started;
+    private int lowestLimit;
+    private int highestLimit;
+    private long calls;
+    private long increases;
+    private long cutsForErrors;
+    private long cutsForLatency;
+    private long droppedPoints;
+
+    public ConcurrencyLimitFilter() {
+        this(INITIAL, MIN_SLOWDOWN_NANOS);
+        MetricsReport.register("concurrency-limit.json", this::report);
+    }
+
+    /** Takes the starting limit and the least slowdown that counts as load, not from the run's properties. */
+    ConcurrencyLimitFilter(int initial, long minSlowdownNanos) {
+        if (MIN < 1 || MIN > initial || initial > MAX) {
+            throw new IllegalArgumentException("api.concurrencyLimit needs 1 <= min <= initial <= max, not "
+                    + MIN + ", " + initial + ", " + MAX);
+        }
+        if (BACKOFF <= 0 || BACKOFF >= 1) {
+            throw new IllegalArgumentException("api.concurrencyLimit.backoff must be between 0 and 1, not " + BACKOFF);
+        }
+        this.minSlowdownNanos = minSlowdownNanos;
+        limit = initial;
+        lowestLimit = initial;
+        highestLimit = initial;
+        point("initial");
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /** The current limit, rounded down as calls see it. */
+    int limit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec, FilterContext ctx) {
+        String endpoint = requestSpec.getMethod() + " " + Endpoints.normalize(requestSpec.getURI());
+        int inFlightAtStart = acquire();
+        long start = System.nanoTime();
+        int status = 0;
+        try {
+            Response response = ctx.next(requestSpec, responseSpec);
+            status = response.statusCode();
+            return response;
+        } finally {
+            release(endpoint, start, System.nanoTime(), status, inFlightAtStart);
+        }
+    }
+
+    private int acquire() {
+        long start = System.nanoTime();
+        lock.lock();
+        try {
+            while (inFlight >= (int) limit) {
+                try {
+                    slotFreed.await();
+                } catch (InterruptedException e) {
+                    // go over the limit rather than fail the call, and keep the interrupt
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            waits.recordNanos(System.nanoTime() - start);
+            return ++inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(String endpoint, long start, long end, int status, int inFlightAtStart) {
+        lock.lock();
+        try {
+            update(endpoint, start, end, status, inFlightAtStart);
+            slotFreed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void update(String endpoint, long start, long end, int status, int inFlightAtStart) {
+        inFlight--;
+        calls++;
+        long latency = end - start;
+        boolean slow = baselines.computeIfAbsent(endpoint, key -> new Baseline(end)).isSlow(end, latency, minSlowdownNanos);
+        // Only the answers of an overloaded server, tests call /api/get_500 on purpose
+        boolean error = status == 0 || status == 429 || status == 503;
+        if (error || slow) {
+            // Calls that were already on their way when the limit was cut say nothing new
+            if (start > lastDecrease) {
+                lastDecrease = end;
+                setLimit(Math.max(MIN, limit * BACKOFF), error ? "error " + status + " on " + endpoint : "slow " + endpoint);
+                if (error) {
+                    cutsForErrors++;
+                } else {
+                    cutsForLatency++;
+                }
+            }
+        } else if (inFlightAtStart * 2 >= limit && limit < MAX) {
+            increases++;
+            setLimit(Math.min(MAX, limit + 1 / limit), "increase");
+        }
+    }
+
+    private void setLimit(double newLimit, String reason) {
+        boolean changed = (int) newLimit != (int) limit;
+        limit = newLimit;
+        if (changed) {
+            lowestLimit = Math.min(lowestLimit, (int) limit);
+            highestLimit = Math.max(highestLimit, (int) limit);
+            point(reason);
+        }
+    }
+
+    private void point(String reason) {
+        if (timeline.size() >= TIMELINE_POINTS) {
+            droppedPoints++;
+            return;
+        }
+        Map<String, Object> point = new LinkedHashMap<>();
+        point.put("atMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        point.put("limit", (int) limit);
+        point.put("inFlight", inFlight);
+        point.put("reason", reason);
+        timeline.add(point);
+    }
+
+    private Object report() {
+        lock.lock();
+        try {
+            return snapshot();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Map<String, Object> snapshot() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("limit", (int) limit);
+        report.put("lowestLimit", lowestLimit);
+        report.put("highestLimit", highestLimit);
+        report.put("calls", calls);
+        report.put("increases", increases);
+        report.put("cutsForErrors", cutsForErrors);
+        report.put("cutsForLatency", cutsForLatency);
+        report.put("waitMicros", waits.summary());
+        report.put("droppedTimelinePoints", droppedPoints);
+        report.put("timeline", new ArrayList<>(timeline));
+        return report;
+    }
+
+    /** Fastest call to one endpoint over the current and the previous window, and the recent average. */
+    private static final class Baseline {
+
+        private long windowStart;
+        private long current = Long.MAX_VALUE;
+        private long previous = Long.MAX_VALUE;
+        private double average;
+
+        Baseline(long now) {
+            windowStart = now;
+        }
+
+        boolean isSlow(long now, long latency, long minSlowdownNanos) {
+            if (now - windowStart > WINDOW_NANOS) {
+                previous = current;
+                current = Long.MAX_VALUE;
+                windowStart = now;
+            }
+            long fastest = Math.min(current, previous);
+            current = Math.min(current, latency);
+            // An average, so that one slow call among fast ones doesn't cut the limit
+            average = average == 0 ? latency : average + (latency - average) / 5;
+            return fastest != Long.MAX_VALUE && average > fastest * TOLERANCE && average - fastest > minSlowdownNanos;
+        }
+    }
+}
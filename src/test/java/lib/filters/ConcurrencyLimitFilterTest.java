@@ -0,0 +1,161 @@
+package lib.filters;
+
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.filter.FilterContext;
+import io.restassured.filter.OrderedFilter;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrencyLimitFilterTest {
+
+    private static final String URL = "http://127.0.0.1/api/hello";
+    // So that scheduling noise on a busy machine never reads as the server slowing down
+    private static final long NO_LATENCY_CUTS = TimeUnit.MINUTES.toNanos(1);
+
+    @Test
+    public void testOverloadAnswersCutTheLimitAndOtherErrorsDont() {
+        ConcurrencyLimitFilter limiter = new ConcurrencyLimitFilter(8, NO_LATENCY_CUTS);
+
+        call(limiter, new Answer(503, null));
+        assertEquals(6, limiter.limit());
+        call(limiter, new Answer(429, null));
+        assertEquals(4, limiter.limit());
+        call(limiter, new Answer(500, null));
+        assertEquals(4, limiter.limit());
+    }
+
+    @Test
+    public void testCallsInFlightTogetherCutTheLimitOnce() throws Exception {
+        ConcurrencyLimitFilter limiter = new ConcurrencyLimitFilter(8, NO_LATENCY_CUTS);
+        CountDownLatch release = new CountDownLatch(1);
+        Answer overloaded = new Answer(503, release);
+
+        List<Future<?>> calls = callInParallel(limiter, overloaded, 4);
+        awaitInFlight(overloaded, 4);
+        release.countDown();
+        for (Future<?> call : calls) {
+            call.get(10, TimeUnit.SECONDS);
+        }
+
+        assertEquals(6, limiter.limit());
+    }
+
+    @Test
+    public void testSlowdownCutsTheLimit() {
+        ConcurrencyLimitFilter limiter = new ConcurrencyLimitFilter(8, TimeUnit.MILLISECONDS.toNanos(20));
+
+        for (int i = 0; i < 3; i++) {
+            call(limiter, new Answer(200, null));
+        }
+        assertEquals(8, limiter.limit());
+
+        CountDownLatch never = new CountDownLatch(1);
+        call(limiter, new Answer(200, never, 300));
+        assertEquals(6, limiter.limit());
+    }
+
+    @Test
+    public void testSuccessfulCallsRaiseTheLimitOnlyWhileItIsUsed() {
+        ConcurrencyLimitFilter limiter = new ConcurrencyLimitFilter(1, NO_LATENCY_CUTS);
+
+        // One call at a time uses a limit of 1 fully, but only half of 2 and less of anything above
+        for (int i = 0; i < 10; i++) {
+            call(limiter, new Answer(200, null));
+        }
+
+        assertEquals(2, limiter.limit());
+    }
+
+    @Test
+    public void testCallsOverTheLimitWait() throws Exception {
+        ConcurrencyLimitFilter limiter = new ConcurrencyLimitFilter(2, NO_LATENCY_CUTS);
+        CountDownLatch release = new CountDownLatch(1);
+        Answer slow = new Answer(200, release);
+
+        List<Future<?>> calls = callInParallel(limiter, slow, 6);
+        awaitInFlight(slow, 2);
+        Thread.sleep(100);
+        assertEquals(2, slow.inFlight.get(), "Calls went past a limit of 2");
+
+        release.countDown();
+        for (Future<?> call : calls) {
+            call.get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static void call(ConcurrencyLimitFilter limiter, Answer answer) {
+        given().noFilters().filter(limiter).filter(answer).get(URL);
+    }
+
+    private static List<Future<?>> callInParallel(ConcurrencyLimitFilter limiter, Answer answer, int count) {
+        ExecutorService executor = Executors.newFixedThreadPool(count);
+        List<Future<?>> calls = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            calls.add(executor.submit(() -> call(limiter, answer)));
+        }
+        executor.shutdown();
+        return calls;
+    }
+
+    private static void awaitInFlight(Answer answer, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (answer.inFlight.get() < count) {
+            assertTrue(System.nanoTime() < deadline, "Only " + answer.inFlight.get() + " of " + count + " calls started");
+            Thread.sleep(5);
+        }
+    }
+
+    /** Answers every call itself with one status, holding it until released, or for a while, if a latch is given. */
+    private static final class Answer implements OrderedFilter {
+
+        private final int status;
+        private final CountDownLatch release;
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private final long holdMillis;
+
+        Answer(int status, CountDownLatch release) {
+            this(status, release, 10_000);
+        }
+
+        Answer(int status, CountDownLatch release, long holdMillis) {
+            this.status = status;
+            this.release = release;
+            this.holdMillis = holdMillis;
+        }
+
+        @Override
+        public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec, FilterContext ctx) {
+            inFlight.incrementAndGet();
+            try {
+                if (release != null) {
+                    release.await(holdMillis, TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            return new ResponseBuilder().setStatusCode(status).setStatusLine("HTTP/1.1 " + status).setBody("").build();
+        }
+
+        @Override
+        public int getOrder() {
+            return LOWEST_PRECEDENCE;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package lib.filters;
+
+import io.restassured.filter.FilterContext;
+import io.restassured.filter.OrderedFilter;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import lib.metrics.EndpointLatencies;
+
+public class LatencyFilter implements OrderedFilter {
+
+    // Innermost, so only the network call is timed, not the Allure capture around it
+    public static final int ORDER = LOWEST_PRECEDENCE;
+
+    // Filters run on the caller's thread, so this is the call the caller just made
+    private static final ThreadLocal<long[]> LAST_CALL_NANOS = ThreadLocal.withInitial(() -> new long[]{-1});
+
+    /**
+     * Network time of the latest call this thread made through the filter, and forgets it; -1 if
+     * no call went out since the last take, e.g. when a cache or cassette answered.
+     */
+    public static long takeLastCallNanos() {
+        long[] last = LAST_CALL_NANOS.get();
+        long nanos = last[0];
+        last[0] = -1;
+        return nanos;
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec, FilterContext ctx) {
+        long start = System.nanoTime();
+        int status = 0;
+        try {
+            Response response = ctx.next(requestSpec, responseSpec);
+            status = response.statusCode();
+            return response;
+        } finally {
+            long nanos = System.nanoTime() - start;
+            LAST_CALL_NANOS.get()[0] = nanos;
+            EndpointLatencies.record(requestSpec.getMethod(), requestSpec.getURI(), status, nanos);
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
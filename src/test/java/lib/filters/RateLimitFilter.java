@@ -0,0 +1,167 @@
+package lib.filters;
+
+import io.restassured.filter.FilterContext;
+import io.restassured.filter.OrderedFilter;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import lib.metrics.Endpoints;
+import lib.metrics.LatencyHistogram;
+import lib.metrics.MetricsReport;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Holds outgoing calls to {@code api.rateLimit} requests per second in total, and to stricter
+ * rates for single endpoints with {@code api.rateLimit.endpoints}, a comma-separated list of
+ * {@code [METHOD ]path:rate} entries such as {@code POST /api/user:2,/api/user/login:5}. Paths
+ * are matched after {@link Endpoints#normalize}; an entry with a method wins over one without.
+ * Each limit is a token bucket holding {@code api.rateLimit.burstSeconds} worth of requests.
+ *
+ * <p>Acquiring is a compare-and-set on the bucket's next free slot, so threads never block each
+ * other; a thread that has to wait reserves its slot first and then parks until it comes. Time
+ * spent waiting goes to {@code rate-limit.json}.
+ */
+public class RateLimitFilter implements OrderedFilter {
+
+    // Inside the cache, single-flight and cassette filters, so only real calls take a token,
+    // and outside the concurrency limit, so a call waiting for a token doesn't hold a slot
+    public static final int ORDER = AllureCaptureFilter.ORDER - 1;
+
+    private static final double GLOBAL_RATE = Double.parseDouble(System.getProperty("api.rateLimit", "0"));
+    private static final String ENDPOINT_RATES = System.getProperty("api.rateLimit.endpoints", "").trim();
+    private static final double BURST_SECONDS = Double.parseDouble(System.getProperty("api.rateLimit.burstSeconds", "1"));
+
+    private final Bucket global;
+    private final Map<String, Bucket> endpoints = new LinkedHashMap<>();
+
+    public RateLimitFilter() {
+        this(GLOBAL_RATE, ENDPOINT_RATES);
+        if (!isEnabled()) {
+            throw new IllegalStateException("Set api.rateLimit or api.rateLimit.endpoints to limit the request rate");
+        }
+        MetricsReport.register("rate-limit.json", this::report);
+    }
+
+    /** Limits given directly rather than by the run's properties; 0 and "" leave a limit out. */
+    RateLimitFilter(double globalRate, String endpointRates) {
+        global = globalRate > 0 ? new Bucket("total", globalRate) : null;
+        if (!endpointRates.isEmpty()) {
+            for (String entry : endpointRates.split(",")) {
+                int colon = entry.lastIndexOf(':');
+                if (colon < 0) {
+                    throw new IllegalArgumentException("api.rateLimit.endpoints entry '" + entry.trim() + "' must be [METHOD ]path:rate");
+                }
+                String key = key(entry.substring(0, colon).trim());
+                endpoints.put(key, new Bucket(key, Double.parseDouble(entry.substring(colon + 1).trim())));
+            }
+        }
+    }
+
+    public static boolean isEnabled() {
+        return GLOBAL_RATE > 0 || !ENDPOINT_RATES.isEmpty();
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec, FilterContext ctx) {
+        String path = Endpoints.normalize(requestSpec.getURI());
+        Bucket endpoint = endpoints.get(requestSpec.getMethod().toUpperCase() + " " + path);
+        if (endpoint == null) {
+            endpoint = endpoints.get(path);
+        }
+        // The endpoint's own limit first, so a call held back by it doesn't sit on a global token
+        if (endpoint != null) {
+            endpoint.acquire();
+        }
+        if (global != null) {
+            global.acquire();
+        }
+        return ctx.next(requestSpec, responseSpec);
+    }
+
+    private static String key(String endpoint) {
+        int space = endpoint.indexOf(' ');
+        if (space < 0) {
+            return Endpoints.normalize(endpoint);
+        }
+        return endpoint.substring(0, space).toUpperCase() + " " + Endpoints.normalize(endpoint.substring(space + 1).trim());
+    }
+
+    List<Map<String, Object>> report() {
+        List<Bucket> buckets = new ArrayList<>(endpoints.values());
+        if (global != null) {
+            buckets.add(global);
+        }
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Bucket bucket : buckets) {
+            rows.add(bucket.report());
+        }
+        return rows;
+    }
+
+    private static final class Bucket {
+
+        private final String name;
+        private final double rate;
+        private final long interval;
+        private final long capacity;
+        // Start of the next free slot; taking one moves it an interval ahead
+        private final AtomicLong nextFree = new AtomicLong(System.nanoTime());
+        private final LongAdder delayed = new LongAdder();
+        private final LatencyHistogram waits = new LatencyHistogram();
+
+        Bucket(String name, double rate) {
+            if (rate <= 0) {
+                throw new IllegalArgumentException("Rate limit of " + name + " must be positive, not " + rate);
+            }
+            this.name = name;
+            this.rate = rate;
+            this.interval = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+            this.capacity = Math.max(1, (long) (rate * BURST_SECONDS)) * interval;
+        }
+
+        void acquire() {
+            long now = System.nanoTime();
+            long slot;
+            long current;
+            do {
+                current = nextFree.get();
+                slot = Math.max(current, now);
+            } while (!nextFree.compareAndSet(current, slot + interval));
+
+            // The first capacity's worth of slots ahead of now are the tokens still in the bucket
+            long wait = slot + interval - capacity - now;
+            if (wait > 0) {
+                delayed.increment();
+                long deadline = now + wait;
+                long remaining;
+                while ((remaining = deadline - System.nanoTime()) > 0 && !Thread.currentThread().isInterrupted()) {
+                    LockSupport.parkNanos(remaining);
+                }
+            }
+            waits.recordNanos(Math.max(wait, 0));
+        }
+
+        Map<String, Object> report() {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("limit", name);
+            row.put("ratePerSecond", rate);
+            row.put("burst", capacity / interval);
+            row.put("delayed", delayed.sum());
+            row.put("waitMicros", waits.summary());
+            return row;
+        }
+    }
+}
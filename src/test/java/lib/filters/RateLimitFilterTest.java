@@ -0,0 +1,80 @@
+package lib.filters;
+
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.filter.FilterContext;
+import io.restassured.filter.OrderedFilter;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimitFilterTest {
+
+    private static final String URL = "http://127.0.0.1/api/user";
+
+    @Test
+    public void testCallsBeyondTheBurstWaitForTheRate() {
+        // 20 per second with a burst of one second: 20 calls go at once, 10 more take half a second
+        RateLimitFilter limiter = new RateLimitFilter(20, "");
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 30; i++) {
+            call(limiter, "GET");
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(elapsedMillis >= 450, "30 calls at 20/s took only " + elapsedMillis + " ms");
+    }
+
+    @Test
+    public void testEndpointLimitOnlyHoldsItsMethod() {
+        RateLimitFilter limiter = new RateLimitFilter(0, "POST /api/user:4");
+
+        for (int i = 0; i < 20; i++) {
+            call(limiter, "GET");
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < 6; i++) {
+            call(limiter, "POST");
+        }
+        long postMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(postMillis >= 450, "6 POSTs at 4/s took only " + postMillis + " ms");
+        List<Map<String, Object>> buckets = limiter.report();
+        assertEquals(1, buckets.size(), "Only the POST limit exists: " + buckets);
+        assertEquals("POST /api/user", buckets.get(0).get("limit"));
+        assertEquals(6L, ((Map<?, ?>) buckets.get(0).get("waitMicros")).get("count"), "GETs took POST tokens");
+    }
+
+    @Test
+    public void testMalformedEndpointEntryIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitFilter(0, "/api/user"));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitFilter(0, "/api/user:0"));
+    }
+
+    private static void call(RateLimitFilter limiter, String method) {
+        int status = given().noFilters().filter(limiter).filter(new Ok()).request(method, URL).statusCode();
+        assertEquals(200, status);
+    }
+
+    /** Answers every call itself, so the test measures the limiter and not the network. */
+    private static final class Ok implements OrderedFilter {
+
+        @Override
+        public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec, FilterContext ctx) {
+            return new ResponseBuilder().setStatusCode(200).setStatusLine("HTTP/1.1 200 OK").setBody("").build();
+        }
+
+        @Override
+        public int getOrder() {
+            return LOWEST_PRECEDENCE;
+        }
+    }
+}
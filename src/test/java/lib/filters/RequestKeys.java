@@ -0,0 +1,111 @@
+package lib.filters;
+
+import io.restassured.config.RedirectConfig;
+import io.restassured.http.Cookie;
+import io.restassured.http.Header;
+import io.restassured.internal.RequestSpecificationImpl;
+import io.restassured.specification.FilterableRequestSpecification;
+
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+final class RequestKeys {
+
+    private static final String HANDLE_REDIRECTS = "http.protocol.handle-redirects";
+    private static final String MAX_REDIRECTS = "http.protocol.max-redirects";
+    private static final Field HTTP_CLIENT_PARAMS = httpClientParamsField();
+
+    private RequestKeys() {
+    }
+
+    /**
+     * Everything that can change the answer: method, full URI, headers, cookies, body and
+     * whether redirects are followed, and how far.
+     */
+    static String of(FilterableRequestSpecification request) {
+        List<String> parts = new ArrayList<>();
+        for (Header header : request.getHeaders()) {
+            parts.add(header.getName().toLowerCase() + ": " + header.getValue());
+        }
+        for (Cookie cookie : request.getCookies()) {
+            parts.add("cookie " + cookie.getName() + "=" + cookie.getValue());
+        }
+        Collections.sort(parts);
+
+        StringBuilder key = new StringBuilder(256).append(request.getMethod()).append(' ').append(request.getURI());
+        key.append("\nredirects: ").append(redirects(request));
+        for (String part : parts) {
+            key.append('\n').append(part);
+        }
+        return key.append("\n\n").append(body(request)).toString();
+    }
+
+    /**
+     * {@code redirects().follow(false)} and friends only reach the request's HttpClient params,
+     * not {@code getConfig().getRedirectConfig()}, so they are read by reflection; the config
+     * holds the defaults they override. Without that field requests that differ only in their
+     * redirect settings would share a key, so a Rest Assured version without it fails here.
+     */
+    static String redirects(FilterableRequestSpecification request) {
+        RedirectConfig config = request.getConfig() == null ? new RedirectConfig() : request.getConfig().getRedirectConfig();
+        Object follow = config.followsRedirects();
+        Object max = config.maxRedirects();
+        if (!(request instanceof RequestSpecificationImpl)) {
+            throw new IllegalStateException("Can't read the redirect settings of a " + request.getClass().getName());
+        }
+        try {
+            Map<?, ?> params = (Map<?, ?>) HTTP_CLIENT_PARAMS.get(request);
+            if (params != null) {
+                follow = params.containsKey(HANDLE_REDIRECTS) ? params.get(HANDLE_REDIRECTS) : follow;
+                max = params.containsKey(MAX_REDIRECTS) ? params.get(MAX_REDIRECTS) : max;
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Can't read the request's redirect settings", e);
+        }
+        return Boolean.parseBoolean(String.valueOf(follow)) ? "follow, max " + max : "none";
+    }
+
+    static String path(String url) {
+        int start = url.indexOf("://");
+        int slash = url.indexOf('/', start < 0 ? 0 : start + 3);
+        String path = slash < 0 ? "/" : url.substring(slash);
+        int query = path.indexOf('?');
+        path = query < 0 ? path : path.substring(0, query);
+        return path.length() > 1 && path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+    }
+
+    static Set<String> endpoints(String commaSeparated) {
+        Set<String> endpoints = new HashSet<>();
+        for (String endpoint : commaSeparated.split(",")) {
+            if (!endpoint.trim().isEmpty()) {
+                endpoints.add(endpoint.trim());
+            }
+        }
+        return endpoints;
+    }
+
+    private static Field httpClientParamsField() {
+        try {
+            Field field = RequestSpecificationImpl.class.getDeclaredField("httpClientParams");
+            field.setAccessible(true);
+            return field;
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException("RequestSpecificationImpl has no httpClientParams field in this Rest Assured version,"
+                    + " request keys can't tell redirect settings apart", e);
+        }
+    }
+
+    static String body(FilterableRequestSpecification request) {
+        Object body = request.getBody();
+        if (body == null) {
+            return "";
+        }
+        return body instanceof byte[] ? new String((byte[]) body, StandardCharsets.UTF_8) : body.toString();
+    }
+}
@@ -0,0 +1,172 @@
+package lib.filters;
+
+import io.restassured.filter.FilterContext;
+import io.restassured.filter.OrderedFilter;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import lib.metrics.Endpoints;
+import lib.metrics.MetricsReport;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opt-in cache of successful GET responses ({@code -Dapi.cache=true}). Only endpoints listed in
+ * {@code api.cache.endpoints}, in {@link Endpoints#normalize} form, are cached. Entries live for
+ * {@code api.cache.ttlSeconds} and the least recently used is dropped above
+ * {@code api.cache.maxEntries}. Requests with other headers or cookies are cached apart. Any other
+ * method drops the cached responses of its path. A hit is attached to the Allure report as the
+ * stored response, marked as served from cache. Counters go to {@code response-cache.json}.
+ */
+public class ResponseCacheFilter implements OrderedFilter {
+
+    // Outermost, so a hit skips the other filters and isn't timed as a network call
+    public static final int ORDER = SingleFlightFilter.ORDER - 1;
+
+    private static final boolean ENABLED = Boolean.getBoolean("api.cache");
+    private static final String DEFAULT_ENDPOINTS =
+            "/api/hello,/api/check_type,/api/map,/api/homework_cookie,/api/homework_header,/api/user/{id}";
+    private static final Set<String> ENDPOINTS = RequestKeys.endpoints(System.getProperty("api.cache.endpoints", DEFAULT_ENDPOINTS));
+    private static final long TTL_NANOS = TimeUnit.SECONDS.toNanos(Long.getLong("api.cache.ttlSeconds", 60));
+    private static final int MAX_ENTRIES = Integer.getInteger("api.cache.maxEntries", 256);
+
+    private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            if (size() > MAX_ENTRIES) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    };
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final ConcurrentMap<String, LongAdder[]> endpointCounters = new ConcurrentHashMap<>();
+
+    public ResponseCacheFilter() {
+        MetricsReport.register("response-cache.json", this::report);
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec, FilterContext ctx) {
+        String url = requestSpec.getURI();
+        String path = RequestKeys.path(url);
+        if (!"GET".equalsIgnoreCase(requestSpec.getMethod())) {
+            try {
+                return ctx.next(requestSpec, responseSpec);
+            } finally {
+                invalidate(path);
+            }
+        }
+
+        String endpoint = Endpoints.normalize(url);
+        if (!ENDPOINTS.contains(endpoint)) {
+            return ctx.next(requestSpec, responseSpec);
+        }
+
+        String key = RequestKeys.of(requestSpec);
+        LongAdder[] counters = endpointCounters.computeIfAbsent(endpoint, name -> new LongAdder[]{new LongAdder(), new LongAdder()});
+        StoredResponse cached = lookup(key);
+        if (cached != null) {
+            hits.increment();
+            counters[0].increment();
+            Response response = cached.toResponse();
+            // The hit never reaches the capture filter, so it is attached here
+            AllureCaptureFilter.captureServed(requestSpec, response, "cache");
+            return response;
+        }
+        misses.increment();
+        counters[1].increment();
+
+        Response response = ctx.next(requestSpec, responseSpec);
+        if (response.statusCode() >= 200 && response.statusCode() < 300) {
+            Entry entry = new Entry(path, StoredResponse.of(response), System.nanoTime() + TTL_NANOS);
+            synchronized (entries) {
+                entries.put(key, entry);
+            }
+        }
+        return response;
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    public Object report() {
+        long hitCount = hits.sum();
+        long lookups = hitCount + misses.sum();
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("hits", hitCount);
+        report.put("misses", misses.sum());
+        report.put("hitRatio", lookups == 0 ? 0 : (double) hitCount / lookups);
+        report.put("evictions", evictions.sum());
+        report.put("invalidations", invalidations.sum());
+        synchronized (entries) {
+            report.put("entries", entries.size());
+        }
+        Map<String, Object> endpoints = new TreeMap<>();
+        for (Map.Entry<String, LongAdder[]> counters : endpointCounters.entrySet()) {
+            Map<String, Long> row = new LinkedHashMap<>();
+            row.put("hits", counters.getValue()[0].sum());
+            row.put("misses", counters.getValue()[1].sum());
+            endpoints.put(counters.getKey(), row);
+        }
+        report.put("endpoints", endpoints);
+        return report;
+    }
+
+    private StoredResponse lookup(String key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (System.nanoTime() - entry.expiresAt >= 0) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.response;
+        }
+    }
+
+    private void invalidate(String path) {
+        synchronized (entries) {
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().path.equals(path)) {
+                    iterator.remove();
+                    invalidations.increment();
+                }
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        private final String path;
+        private final StoredResponse response;
+        private final long expiresAt;
+
+        private Entry(String path, StoredResponse response, long expiresAt) {
+            this.path = path;
+            this.response = response;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package lib.filters;
+
+import io.restassured.filter.FilterContext;
+import io.restassured.filter.OrderedFilter;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import lib.metrics.Endpoints;
+import lib.metrics.MetricsReport;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Identical requests made while the first of them is still running wait for its response
+ * instead of making their own call. This applies to GETs and to the POST endpoints in
+ * {@code api.singleFlight.endpoints} (login by default) when run with {@code -Dapi.singleFlight=true}.
+ * Saved calls are counted in {@code single-flight.json}.
+ */
+public class SingleFlightFilter implements OrderedFilter {
+
+    // Outside the cassette and latency filters, which only see the call that is really made
+    public static final int ORDER = CassetteFilter.ORDER - 1;
+
+    private static final boolean ENABLED = Boolean.getBoolean("api.singleFlight");
+    private static final Set<String> POST_ENDPOINTS = RequestKeys.endpoints(System.getProperty("api.singleFlight.endpoints", "/api/user/login"));
+
+    private final ConcurrentMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder saved = new LongAdder();
+    private final ConcurrentMap<String, LongAdder> savedByEndpoint = new ConcurrentHashMap<>();
+
+    public SingleFlightFilter() {
+        MetricsReport.register("single-flight.json", this::report);
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec, FilterContext ctx) {
+        String method = requestSpec.getMethod();
+        String endpoint = Endpoints.normalize(requestSpec.getURI());
+        boolean coalesced = "GET".equalsIgnoreCase(method)
+                || "POST".equalsIgnoreCase(method) && POST_ENDPOINTS.contains(endpoint);
+        if (!coalesced) {
+            return ctx.next(requestSpec, responseSpec);
+        }
+
+        String key = RequestKeys.of(requestSpec);
+        CompletableFuture<StoredResponse> call = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(key, call);
+        if (running != null) {
+            saved.increment();
+            savedByEndpoint.computeIfAbsent(method + " " + endpoint, name -> new LongAdder()).increment();
+            Response response = await(running).toResponse();
+            AllureCaptureFilter.captureServed(requestSpec, response, "an identical call in flight");
+            return response;
+        }
+
+        calls.increment();
+        try {
+            Response response = ctx.next(requestSpec, responseSpec);
+            call.complete(StoredResponse.of(response));
+            return response;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    public Object report() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("calls", calls.sum());
+        report.put("saved", saved.sum());
+        Map<String, Long> endpoints = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> endpoint : savedByEndpoint.entrySet()) {
+            endpoints.put(endpoint.getKey(), endpoint.getValue().sum());
+        }
+        report.put("savedByEndpoint", endpoints);
+        return report;
+    }
+
+    private static StoredResponse await(CompletableFuture<StoredResponse> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            // The waiters fail the same way as the call they waited for
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package lib.filters;
+
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.http.Cookie;
+import io.restassured.http.Cookies;
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
+import io.restassured.response.Response;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A response kept outside Rest Assured: status, headers and body bytes. Filters that
+ * answer without calling the server turn it back into a {@link Response}.
+ */
+final class StoredResponse {
+
+    private final int statusCode;
+    private final String statusLine;
+    private final List<Header> headers;
+    private final byte[] body;
+
+    private StoredResponse(int statusCode, String statusLine, List<Header> headers, byte[] body) {
+        this.statusCode = statusCode;
+        this.statusLine = statusLine;
+        this.headers = headers;
+        this.body = body;
+    }
+
+    static StoredResponse of(Response response) {
+        byte[] body = response.asByteArray();
+        return new StoredResponse(
+                response.statusCode(),
+                response.statusLine(),
+                new ArrayList<>(response.headers().asList()),
+                body == null ? new byte[0] : body
+        );
+    }
+
+    static StoredResponse readFrom(ByteBuffer buffer) {
+        int statusCode = buffer.getInt();
+        String statusLine = readString(buffer);
+        int headerCount = buffer.getInt();
+        List<Header> headers = new ArrayList<>(headerCount);
+        for (int i = 0; i < headerCount; i++) {
+            headers.add(new Header(readString(buffer), readString(buffer)));
+        }
+        byte[] body = new byte[buffer.getInt()];
+        buffer.get(body);
+        return new StoredResponse(statusCode, statusLine, headers, body);
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(statusCode);
+        writeString(out, statusLine);
+        out.writeInt(headers.size());
+        for (Header header : headers) {
+            writeString(out, header.getName());
+            writeString(out, header.getValue());
+        }
+        out.writeInt(body.length);
+        out.write(body);
+    }
+
+    int size() {
+        return body.length;
+    }
+
+    Response toResponse() {
+        List<Cookie> cookies = new ArrayList<>();
+        String contentType = null;
+        for (Header header : headers) {
+            if (header.getName().equalsIgnoreCase("Set-Cookie")) {
+                String pair = header.getValue().split(";", 2)[0];
+                int equals = pair.indexOf('=');
+                if (equals > 0) {
+                    cookies.add(new Cookie.Builder(pair.substring(0, equals).trim(), pair.substring(equals + 1).trim()).build());
+                }
+            } else if (header.getName().equalsIgnoreCase("Content-Type")) {
+                contentType = header.getValue();
+            }
+        }
+
+        ResponseBuilder builder = new ResponseBuilder()
+                .setStatusCode(statusCode)
+                .setStatusLine(statusLine)
+                .setHeaders(new Headers(headers))
+                .setCookies(new Cookies(cookies))
+                .setBody(body);
+        if (contentType != null) {
+            builder.setContentType(contentType);
+        }
+        return builder.build();
+    }
+
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
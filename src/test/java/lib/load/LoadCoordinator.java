@@ -0,0 +1,171 @@
+package lib.load;
+
+import lib.ApiConfig;
+import lib.DataGenerator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Splits a load run across {@code load.workers} JVMs. The coordinator listens on
+ * {@code load.coordinator.port} (any free port by default), starts {@code load.localWorkers}
+ * of the workers itself (all of them by default) and waits for the rest to connect, started by
+ * hand on other hosts as {@code LoadTest} with {@code -Dload.coordinator=<host>:<port>}.
+ *
+ * <p>Each worker gets its share of the users or the rate. In the open model worker {@code i}
+ * starts its schedule {@code i} arrivals late, so the combined arrivals stay evenly spaced.
+ * When every worker is connected they all start; at the end each one sends its raw
+ * histograms back, and the coordinator adds them up bucket by bucket. The merged
+ * percentiles are exactly those of all samples together. A local worker that then exits with
+ * an error, or doesn't exit, fails the run.
+ *
+ * <p>Local workers inherit the {@code api.*}, {@code load.*}, {@code tests.*} and {@code allure.*}
+ * properties. With {@code api.emulator=true} they share the coordinator's emulator. In a seeded
+ * run they also share its data salt, see {@link DataGenerator}.
+ */
+final class LoadCoordinator {
+
+    private static final int PORT = Integer.getInteger("load.coordinator.port", 0);
+    private static final long CONNECT_TIMEOUT_SECONDS = Long.getLong("load.coordinator.timeoutSeconds", 120L);
+    private static final String[] FORWARDED_PREFIXES = {"api.", "load.", "tests.", "allure."};
+    private static final List<String> OVERRIDDEN = Arrays.asList(
+            "api.emulator", "api.baseUrl", "api.data.fork", "api.data.salt", "load.workers", "load.coordinator");
+
+    private LoadCoordinator() {
+    }
+
+    static long coordinate(int workers, LoadReport report) throws IOException, InterruptedException {
+        int localWorkers = Integer.getInteger("load.localWorkers", workers);
+        List<Process> processes = new ArrayList<>();
+        List<Socket> sockets = new ArrayList<>();
+
+        try (ServerSocket server = new ServerSocket(PORT)) {
+            server.setSoTimeout((int) TimeUnit.SECONDS.toMillis(CONNECT_TIMEOUT_SECONDS));
+            System.out.println("Coordinator listening on port " + server.getLocalPort() + ", starting "
+                    + localWorkers + " of " + workers + " workers");
+            for (int i = 0; i < localWorkers; i++) {
+                processes.add(startWorker(i, server.getLocalPort()));
+            }
+
+            List<DataInputStream> inputs = new ArrayList<>();
+            List<DataOutputStream> outputs = new ArrayList<>();
+            for (int i = 0; i < workers; i++) {
+                Socket socket = server.accept();
+                socket.setTcpNoDelay(true);
+                sockets.add(socket);
+                inputs.add(new DataInputStream(new BufferedInputStream(socket.getInputStream())));
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                out.writeUTF(LoadTest.MODEL);
+                out.writeInt(LoadTest.USERS / workers + (i < LoadTest.USERS % workers ? 1 : 0));
+                out.writeDouble(LoadTest.RATE / workers);
+                out.writeLong(LoadTest.DURATION_SECONDS);
+                out.writeInt(Math.max(1, LoadTest.MAX_CONCURRENCY / workers));
+                out.writeUTF(LoadTest.MIX);
+                out.writeLong(startOffsetNanos(i));
+                out.flush();
+                outputs.add(out);
+            }
+            for (DataInputStream ready : inputs) {
+                ready.readBoolean();
+            }
+
+            long start = System.nanoTime();
+            for (DataOutputStream out : outputs) {
+                out.writeBoolean(true);
+                out.flush();
+            }
+            for (DataInputStream in : inputs) {
+                report.mergeFrom(in);
+            }
+            long elapsed = System.nanoTime() - start;
+
+            for (int i = 0; i < processes.size(); i++) {
+                Process process = processes.get(i);
+                if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("Load worker " + i + " didn't exit 30 s after sending its results");
+                }
+                if (process.exitValue() != 0) {
+                    throw new IllegalStateException("Load worker " + i + " exited with code " + process.exitValue());
+                }
+            }
+            return elapsed;
+        } finally {
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+            for (Process process : processes) {
+                process.destroy();
+            }
+        }
+    }
+
+    /** Only the open model has a schedule to stagger; closed-model users start together. */
+    private static long startOffsetNanos(int worker) {
+        if (!"open".equals(LoadTest.MODEL) || LoadTest.RATE <= 0) {
+            return 0;
+        }
+        return (long) (worker * TimeUnit.SECONDS.toNanos(1) / LoadTest.RATE);
+    }
+
+    static void work(String coordinator) throws IOException, InterruptedException {
+        int colon = coordinator.lastIndexOf(':');
+        try (Socket socket = new Socket(coordinator.substring(0, colon), Integer.parseInt(coordinator.substring(colon + 1)))) {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+            String model = in.readUTF();
+            int users = in.readInt();
+            double rate = in.readDouble();
+            long durationSeconds = in.readLong();
+            int maxConcurrency = in.readInt();
+            String mix = in.readUTF();
+            long offsetNanos = in.readLong();
+
+            LoadReport report = new LoadReport();
+            LoadTest loadTest = new LoadTest(LoadTest.workload(mix), report, model, users, rate, durationSeconds, maxConcurrency);
+            out.writeBoolean(true);
+            out.flush();
+
+            in.readBoolean();
+            loadTest.run(offsetNanos);
+            report.writeTo(out);
+            out.flush();
+        }
+    }
+
+    private static Process startWorker(int index, int port) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + "/bin/java");
+        command.add("-classpath");
+        command.add(System.getProperty("java.class.path"));
+        for (String name : System.getProperties().stringPropertyNames()) {
+            for (String prefix : FORWARDED_PREFIXES) {
+                if (name.startsWith(prefix) && !OVERRIDDEN.contains(name)) {
+                    command.add("-D" + name + "=" + System.getProperty(name));
+                    break;
+                }
+            }
+        }
+        command.add("-Dapi.emulator=false");
+        command.add("-Dapi.baseUrl=" + ApiConfig.baseUrl());
+        if (System.getProperty("api.data.seed") != null) {
+            // One salt for the whole run, so the recorded one reproduces every worker
+            command.add("-Dapi.data.salt=" + DataGenerator.getSalt());
+            command.add("-Dapi.data.fork=" + index);
+        }
+        command.add("-Dload.workers=0");
+        command.add("-Dload.coordinator=127.0.0.1:" + port);
+        command.add(LoadTest.class.getName());
+        return new ProcessBuilder(command).inheritIO().start();
+    }
+}
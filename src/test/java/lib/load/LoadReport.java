@@ -0,0 +1,136 @@
+package lib.load;
+
+import lib.metrics.LatencyHistogram;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-step results of a load run. Response time is measured from when the step should have
+ * started: the scheduled arrival for the first step of an open-model iteration, the end of the
+ * previous step otherwise. Queueing caused by a saturated system is therefore counted instead
+ * of hidden (coordinated omission). Service time is measured from when the request really
+ * started. In the closed model both are the same.
+ */
+final class LoadReport {
+
+    static final String TOTAL = "total";
+
+    private final ConcurrentMap<String, Step> steps = new ConcurrentHashMap<>();
+
+    void record(String step, long intendedStart, long start, long end, boolean success) {
+        Step stats = steps.computeIfAbsent(step, name -> new Step());
+        stats.responseTime.recordNanos(end - intendedStart);
+        stats.serviceTime.recordNanos(end - start);
+        if (!success) {
+            stats.errors.increment();
+        }
+    }
+
+    long errors(String step) {
+        Step stats = steps.get(step);
+        return stats == null ? 0 : stats.errors.sum();
+    }
+
+    /** Sends the raw histograms, so that {@link #mergeFrom} on the other side is exact. */
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(steps.size());
+        for (Map.Entry<String, Step> entry : steps.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeLong(entry.getValue().errors.sum());
+            writeHistogram(out, entry.getValue().responseTime);
+            writeHistogram(out, entry.getValue().serviceTime);
+        }
+    }
+
+    void mergeFrom(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            Step stats = steps.computeIfAbsent(in.readUTF(), name -> new Step());
+            stats.errors.add(in.readLong());
+            stats.responseTime.add(readHistogram(in));
+            stats.serviceTime.add(readHistogram(in));
+        }
+    }
+
+    Map<String, Object> toMap(Iterable<String> order, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        Map<String, Object> report = new LinkedHashMap<>();
+        for (String name : order) {
+            Step stats = steps.get(name);
+            if (stats == null) {
+                continue;
+            }
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("count", stats.responseTime.getCount());
+            row.put("errors", stats.errors.sum());
+            row.put("throughputPerSecond", Math.round(stats.responseTime.getCount() / seconds * 100) / 100.0);
+            row.put("responseTime", stats.responseTime.summary());
+            row.put("serviceTime", stats.serviceTime.summary());
+            report.put(name, row);
+        }
+        return report;
+    }
+
+    String format(Iterable<String> order, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        int width = 10;
+        for (String name : order) {
+            width = Math.max(width, name.length());
+        }
+        StringBuilder table = new StringBuilder(String.format("%-" + width + "s %8s %7s %9s %9s %9s %9s %9s %12s%n",
+                "step", "count", "errors", "per sec", "p50 ms", "p90 ms", "p99 ms", "max ms", "svc p99 ms"));
+        for (String name : order) {
+            Step stats = steps.get(name);
+            if (stats == null) {
+                continue;
+            }
+            LatencyHistogram response = stats.responseTime;
+            table.append(String.format("%-" + width + "s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %12.2f%n",
+                    name,
+                    response.getCount(),
+                    stats.errors.sum(),
+                    response.getCount() / seconds,
+                    millis(response.getPercentile(50)),
+                    millis(response.getPercentile(90)),
+                    millis(response.getPercentile(99)),
+                    millis(response.getMax()),
+                    millis(stats.serviceTime.getPercentile(99))));
+        }
+        return table.toString();
+    }
+
+    private static void writeHistogram(DataOutputStream out, LatencyHistogram histogram) throws IOException {
+        long[] values = histogram.toArray();
+        out.writeInt(values.length);
+        for (long value : values) {
+            out.writeLong(value);
+        }
+    }
+
+    private static LatencyHistogram readHistogram(DataInputStream in) throws IOException {
+        long[] values = new long[in.readInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readLong();
+        }
+        return LatencyHistogram.fromArray(values);
+    }
+
+    private static double millis(long micros) {
+        return micros / (double) TimeUnit.MILLISECONDS.toMicros(1);
+    }
+
+    private static final class Step {
+
+        private final LatencyHistogram responseTime = new LatencyHistogram();
+        private final LatencyHistogram serviceTime = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+    }
+}
@@ -0,0 +1,168 @@
+package lib.load;
+
+import lib.ApiConfig;
+import lib.DaemonThreadFactory;
+import lib.metrics.MetricsReport;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs a {@link Workload} under load and writes per-step throughput and percentiles to
+ * {@code load-<model>.json} in the metrics directory. The workload is {@link UserLifecycleScenario},
+ * or a {@link TestMix} of existing test methods from {@code tests.packages} when {@code load.mix}
+ * is set, reported to {@code load-mix-<model>.json}.
+ *
+ * <p>{@code load.model=closed} keeps {@code load.users} virtual users busy, each starting the
+ * next iteration when the previous one ends. {@code load.model=open} starts iterations at
+ * {@code load.rate} per second on a fixed schedule, whether earlier ones have finished or not,
+ * with at most {@code load.maxConcurrency} in flight; latencies count from the scheduled start.
+ * Both run for {@code load.durationSeconds}. With {@code load.workers} set the load is split
+ * across worker JVMs, see {@link LoadCoordinator}.
+ */
+public final class LoadTest {
+
+    static final String MODEL = System.getProperty("load.model", "closed");
+    static final int USERS = Integer.getInteger("load.users", 10);
+    static final double RATE = Double.parseDouble(System.getProperty("load.rate", "20"));
+    static final long DURATION_SECONDS = Long.getLong("load.durationSeconds", 30L);
+    static final int MAX_CONCURRENCY = Integer.getInteger("load.maxConcurrency", 200);
+    static final String MIX = System.getProperty("load.mix", "").trim();
+    private static final int WORKERS = Integer.getInteger("load.workers", 0);
+    private static final String COORDINATOR = System.getProperty("load.coordinator", "").trim();
+
+    private final Workload workload;
+    private final LoadReport report;
+    private final String model;
+    private final int users;
+    private final double rate;
+    private final long durationSeconds;
+    private final int maxConcurrency;
+
+    LoadTest(Workload workload, LoadReport report, String model, int users, double rate, long durationSeconds, int maxConcurrency) {
+        if (!"open".equals(model) && !"closed".equals(model)) {
+            throw new IllegalArgumentException("load.model must be open or closed, not " + model);
+        }
+        this.workload = workload;
+        this.report = report;
+        this.model = model;
+        this.users = users;
+        this.rate = rate;
+        this.durationSeconds = durationSeconds;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (!COORDINATOR.isEmpty()) {
+            LoadCoordinator.work(COORDINATOR);
+            System.exit(0);
+        }
+
+        Workload workload = workload(MIX);
+        String settings = describe() + (WORKERS > 0 ? " across " + WORKERS + " workers" : "");
+        System.out.println("Load test of " + workload.describe() + " against " + ApiConfig.baseUrl() + ": " + settings);
+
+        LoadReport report = new LoadReport();
+        long elapsed = WORKERS > 0
+                ? LoadCoordinator.coordinate(WORKERS, report)
+                : new LoadTest(workload, report, MODEL, USERS, RATE, DURATION_SECONDS, MAX_CONCURRENCY).run(0);
+
+        List<String> order = new ArrayList<>(workload.steps());
+        order.add(LoadReport.TOTAL);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("workload", workload.describe());
+        result.put("model", MODEL);
+        result.put("settings", settings);
+        result.put("elapsedSeconds", TimeUnit.NANOSECONDS.toMillis(elapsed) / 1000.0);
+        result.put("steps", report.toMap(order, elapsed));
+        System.out.print(report.format(order, elapsed));
+        System.out.println("Report: " + MetricsReport.write((MIX.isEmpty() ? "load-" : "load-mix-") + MODEL + ".json", result));
+        System.exit(0);
+    }
+
+    static Workload workload(String mix) {
+        return mix.isEmpty()
+                ? new UserLifecycleScenario()
+                : new TestMix(mix, System.getProperty("tests.packages", "tests").split(","));
+    }
+
+    private static String describe() {
+        return "open".equals(MODEL)
+                ? RATE + " iterations/s for " + DURATION_SECONDS + " s, max " + MAX_CONCURRENCY + " in flight"
+                : USERS + " users for " + DURATION_SECONDS + " s";
+    }
+
+    /**
+     * Runs the workload and returns the elapsed nanos. In the open model the schedule starts
+     * {@code offsetNanos} late, which lets several workers interleave their arrivals.
+     */
+    long run(long offsetNanos) throws InterruptedException {
+        long start = System.nanoTime();
+        if ("open".equals(model)) {
+            runOpen(start + offsetNanos);
+        } else {
+            runClosed(start);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private void runClosed(long start) throws InterruptedException {
+        if (users <= 0) {
+            return;
+        }
+        long deadline = start + TimeUnit.SECONDS.toNanos(durationSeconds);
+        ExecutorService virtualUsers = Executors.newFixedThreadPool(users,
+                new DaemonThreadFactory("load-user-"));
+        for (int i = 0; i < users; i++) {
+            virtualUsers.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    iteration(System.nanoTime());
+                }
+            });
+        }
+        virtualUsers.shutdown();
+        virtualUsers.awaitTermination(durationSeconds + 60, TimeUnit.SECONDS);
+    }
+
+    private void runOpen(long start) throws InterruptedException {
+        ThreadPoolExecutor workers = new ThreadPoolExecutor(maxConcurrency, maxConcurrency,
+                0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                new DaemonThreadFactory("load-worker-"));
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        long iterations = (long) (rate * durationSeconds);
+        for (long i = 0; i < iterations; i++) {
+            long intendedStart = start + i * interval;
+            long wait;
+            while ((wait = intendedStart - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            workers.execute(() -> iteration(intendedStart));
+        }
+        workers.shutdown();
+        workers.awaitTermination(durationSeconds + 60, TimeUnit.SECONDS);
+    }
+
+    private void iteration(long intendedStart) {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            workload.run(report, intendedStart);
+            success = true;
+        } catch (RuntimeException | AssertionError e) {
+            if (report.errors(LoadReport.TOTAL) == 0) {
+                System.out.println("First failed iteration: " + e);
+            }
+        } finally {
+            report.record(LoadReport.TOTAL, intendedStart, start, System.nanoTime(), success);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package lib.load;
+
+import io.restassured.response.Response;
+
+import java.util.function.Supplier;
+
+/**
+ * Times the steps of one scenario iteration into a {@link LoadReport}. A step that doesn't
+ * answer 200 is an error and ends the iteration.
+ */
+final class StepTimer {
+
+    private final LoadReport report;
+    private long intendedStart;
+
+    StepTimer(LoadReport report, long intendedStart) {
+        this.report = report;
+        this.intendedStart = intendedStart;
+    }
+
+    Response step(String name, Supplier<Response> call) {
+        long start = System.nanoTime();
+        Response response;
+        try {
+            response = call.get();
+        } catch (RuntimeException | Error e) {
+            report.record(name, intendedStart, start, System.nanoTime(), false);
+            throw e;
+        }
+        long end = System.nanoTime();
+        boolean success = response.statusCode() == 200;
+        report.record(name, intendedStart, start, end, success);
+        intendedStart = end;
+        if (!success) {
+            throw new IllegalStateException(name + " answered " + response.statusCode() + ": " + response.asString());
+        }
+        return response;
+    }
+}
@@ -0,0 +1,104 @@
+package lib.load;
+
+import lib.runner.TestMethod;
+import org.junit.platform.launcher.listeners.TestExecutionSummary;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Existing test methods as a weighted traffic mix. The mix is a comma-separated list of
+ * {@code name:weight} entries, for example {@code UserGetTest:3,UserAuthTest:1}, where a name is
+ * a test class (simple or qualified) or a single method ({@code UserGetTest.testGetUserDataNotAuth}).
+ * The weight of a class is shared evenly by its methods. Each iteration runs one method picked
+ * by weight and reports it under its own name; a method that fails is an error.
+ */
+final class TestMix implements Workload {
+
+    private final String mix;
+    private final List<TestMethod> methods = new ArrayList<>();
+    private final List<String> names = new ArrayList<>();
+    private final double[] cumulativeWeights;
+
+    TestMix(String mix, String... packageNames) {
+        this.mix = mix;
+        List<TestMethod> discovered = TestMethod.discoverPackages(packageNames);
+        List<Double> weights = new ArrayList<>();
+
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            double weight = parts.length > 1 ? Double.parseDouble(parts[1].trim()) : 1;
+            if (weight <= 0) {
+                throw new IllegalArgumentException("Weight of " + parts[0] + " must be positive");
+            }
+            List<TestMethod> matching = matching(discovered, parts[0].trim());
+            if (matching.isEmpty()) {
+                throw new IllegalArgumentException("No test methods match " + parts[0] + " in " + String.join(",", packageNames));
+            }
+            for (TestMethod method : matching) {
+                methods.add(method);
+                names.add(method.getName());
+                weights.add(weight / matching.size());
+            }
+        }
+
+        cumulativeWeights = new double[weights.size()];
+        double total = 0;
+        for (int i = 0; i < weights.size(); i++) {
+            total += weights.get(i);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    @Override
+    public String describe() {
+        return "test mix " + mix;
+    }
+
+    @Override
+    public List<String> steps() {
+        return Collections.unmodifiableList(names);
+    }
+
+    @Override
+    public void run(LoadReport report, long intendedStart) {
+        int picked = pick();
+        TestMethod method = methods.get(picked);
+        long start = System.nanoTime();
+        TestExecutionSummary summary;
+        try {
+            summary = method.execute();
+        } catch (RuntimeException | Error e) {
+            report.record(names.get(picked), intendedStart, start, System.nanoTime(), false);
+            throw e;
+        }
+        boolean success = summary.getTestsFailedCount() == 0;
+        report.record(names.get(picked), intendedStart, start, System.nanoTime(), success);
+        if (!success) {
+            throw new IllegalStateException(names.get(picked) + " failed: " + summary.getFailures().get(0).getException());
+        }
+    }
+
+    private int pick() {
+        double point = ThreadLocalRandom.current().nextDouble(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (point < cumulativeWeights[i]) {
+                return i;
+            }
+        }
+        return cumulativeWeights.length - 1;
+    }
+
+    private static List<TestMethod> matching(List<TestMethod> discovered, String name) {
+        List<TestMethod> matching = new ArrayList<>();
+        for (TestMethod method : discovered) {
+            Class<?> testClass = method.getTestClass();
+            if (name.equals(testClass.getSimpleName()) || name.equals(testClass.getName()) || name.equals(method.getName())) {
+                matching.add(method);
+            }
+        }
+        return matching;
+    }
+}
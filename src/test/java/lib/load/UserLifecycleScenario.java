@@ -0,0 +1,72 @@
+package lib.load;
+
+import io.restassured.response.Response;
+import lib.ApiConfig;
+import lib.ApiCoreRequests;
+import lib.Assertions;
+import lib.BaseTestCase;
+import lib.DataGenerator;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The register, login, edit, get and delete flow of {@code UserEditTest} and
+ * {@code UserDeleteTest}, one step per request.
+ */
+public class UserLifecycleScenario extends BaseTestCase implements Workload {
+
+    private static final List<String> STEPS = Arrays.asList("register", "login", "edit", "get", "delete");
+
+    private final ApiCoreRequests apiCoreRequests = new ApiCoreRequests();
+
+    @Override
+    public String describe() {
+        return "user lifecycle";
+    }
+
+    @Override
+    public List<String> steps() {
+        return STEPS;
+    }
+
+    @Override
+    public void run(LoadReport report, long intendedStart) {
+        StepTimer timer = new StepTimer(report, intendedStart);
+
+        //REGISTER
+        Map<String, String> userData = DataGenerator.getRegistrationData();
+        Response responseCreateAuth = timer.step("register", () -> apiCoreRequests
+                .makePostRequest(ApiConfig.url("/api/user/"), userData));
+        int userId = this.getIntFromJson(responseCreateAuth, "id");
+
+        //LOGIN
+        Map<String, String> authData = new HashMap<>();
+        authData.put("email", userData.get("email"));
+        authData.put("password", userData.get("password"));
+
+        Response responseGetAuth = timer.step("login", () -> apiCoreRequests
+                .makePostRequest(ApiConfig.url("/api/user/login"), authData));
+        String header = this.getHeader(responseGetAuth, "x-csrf-token");
+        String cookie = this.getCookie(responseGetAuth, "auth_sid");
+
+        //EDIT
+        String newName = "Changed Name";
+        Map<String, String> editData = new HashMap<>();
+        editData.put("firstName", newName);
+
+        timer.step("edit", () -> apiCoreRequests
+                .makeAnEditUserDetailsRequest(ApiConfig.url("/api/user/"), header, cookie, editData, userId));
+
+        //GET
+        Response responseUserData = timer.step("get", () -> apiCoreRequests
+                .makeGetUserDetailsRequest(ApiConfig.url("/api/user/"), header, cookie, userId));
+        Assertions.assertJsonByName(responseUserData, "firstName", newName);
+
+        //DELETE
+        timer.step("delete", () -> apiCoreRequests
+                .makeDeleteUserRequest(ApiConfig.url("/api/user/"), header, cookie, userId));
+    }
+}
@@ -0,0 +1,15 @@
+package lib.load;
+
+import java.util.List;
+
+/**
+ * What {@link LoadTest} runs once per iteration. An iteration that fails throws.
+ */
+interface Workload {
+
+    String describe();
+
+    List<String> steps();
+
+    void run(LoadReport report, long intendedStart);
+}
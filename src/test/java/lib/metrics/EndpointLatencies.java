@@ -0,0 +1,84 @@
+package lib.metrics;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Latency of every API call by endpoint, HTTP method and status code, written to
+ * {@code latency.json} at the end of the run. Status 0 means no response was received.
+ */
+public final class EndpointLatencies {
+
+    private static final String[] METHODS = {"GET", "POST", "PUT", "DELETE", "PATCH", "HEAD", "OPTIONS", "OTHER"};
+    private static final int STATUSES = 600;
+    private static final ConcurrentMap<String, Endpoint> ENDPOINTS = new ConcurrentHashMap<>();
+
+    static {
+        MetricsReport.register("latency.json", EndpointLatencies::report);
+    }
+
+    private EndpointLatencies() {
+    }
+
+    public static void record(String method, String url, int status, long nanos) {
+        ENDPOINTS.computeIfAbsent(Endpoints.normalize(url), Endpoint::new)
+                .histogram(methodIndex(method), status)
+                .recordNanos(nanos);
+    }
+
+    public static Object report() {
+        Map<String, Endpoint> sorted = new TreeMap<>(ENDPOINTS);
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Endpoint endpoint : sorted.values()) {
+            for (int i = 0; i < endpoint.histograms.length(); i++) {
+                LatencyHistogram histogram = endpoint.histograms.get(i);
+                if (histogram == null) {
+                    continue;
+                }
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("endpoint", endpoint.path);
+                row.put("method", METHODS[i / STATUSES]);
+                row.put("status", i % STATUSES);
+                row.putAll(histogram.summary());
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private static int methodIndex(String method) {
+        for (int i = 0; i < METHODS.length - 1; i++) {
+            if (METHODS[i].equalsIgnoreCase(method)) {
+                return i;
+            }
+        }
+        return METHODS.length - 1;
+    }
+
+    private static final class Endpoint {
+
+        private final String path;
+        private final AtomicReferenceArray<LatencyHistogram> histograms =
+                new AtomicReferenceArray<>(METHODS.length * STATUSES);
+
+        private Endpoint(String path) {
+            this.path = path;
+        }
+
+        private LatencyHistogram histogram(int method, int status) {
+            int index = method * STATUSES + (status > 0 && status < STATUSES ? status : 0);
+            LatencyHistogram histogram = histograms.get(index);
+            if (histogram == null) {
+                histograms.compareAndSet(index, null, new LatencyHistogram());
+                histogram = histograms.get(index);
+            }
+            return histogram;
+        }
+    }
+}
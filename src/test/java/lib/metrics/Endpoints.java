@@ -0,0 +1,64 @@
+package lib.metrics;
+
+import java.net.URI;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public final class Endpoints {
+
+    private static final int CACHE_SIZE = Integer.getInteger("api.metrics.endpointCacheSize", 4096);
+    // Filters normalize the URL of every call, and a run calls the same URLs over and over.
+    // Once full, further URLs are normalized each time rather than evicting anything
+    private static final ConcurrentMap<String, String> CACHE = new ConcurrentHashMap<>();
+
+    private Endpoints() {
+    }
+
+    /**
+     * {@code https://host/api/user/46754?x=1} becomes {@code /api/user/{id}}: no host or
+     * query, numeric segments replaced and no trailing slash, so one endpoint gets one key.
+     * Results are cached by URL without its query, for up to {@code api.metrics.endpointCacheSize} URLs.
+     */
+    public static String normalize(String url) {
+        int query = url.indexOf('?');
+        String key = query < 0 ? url : url.substring(0, query);
+        String endpoint = CACHE.get(key);
+        if (endpoint == null) {
+            endpoint = parse(key);
+            if (CACHE.size() < CACHE_SIZE) {
+                CACHE.putIfAbsent(key, endpoint);
+            }
+        }
+        return endpoint;
+    }
+
+    private static String parse(String url) {
+        String path;
+        try {
+            path = URI.create(url).getRawPath();
+        } catch (IllegalArgumentException e) {
+            path = url;
+        }
+        if (path == null || path.isEmpty()) {
+            return "/";
+        }
+
+        StringBuilder endpoint = new StringBuilder(path.length());
+        for (String segment : path.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            endpoint.append('/').append(isNumeric(segment) ? "{id}" : segment);
+        }
+        return endpoint.length() == 0 ? "/" : endpoint.toString();
+    }
+
+    private static boolean isNumeric(String segment) {
+        for (int i = 0; i < segment.length(); i++) {
+            if (!Character.isDigit(segment.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,141 @@
+package lib.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free log-linear histogram of microsecond values from 1 microsecond to several days.
+ * Each power of two is split into 16 buckets, so a bucket is at most 1/16 (6.25%) of its
+ * values wide; percentiles report the bucket's upper bound and never understate. {@link #record}
+ * itself doesn't allocate, callers building a key per call (see {@link EndpointLatencies}) do.
+ * Histograms share one bucket layout, so merging them gives exact percentiles of the combined data.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKETS = 32;
+    private static final int HALF = SUB_BUCKETS / 2;
+    private static final int BUCKETS = SUB_BUCKETS + 40 * HALF;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void recordNanos(long nanos) {
+        record(TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+    public void record(long micros) {
+        long value = Math.max(micros, 0);
+        counts.incrementAndGet(indexOf(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+        long current;
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+            // retry until the larger value wins
+        }
+    }
+
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long bucket = other.counts.get(i);
+            if (bucket != 0) {
+                counts.addAndGet(i, bucket);
+            }
+        }
+        count.addAndGet(other.count.get());
+        sum.addAndGet(other.sum.get());
+        long otherMax = other.max.get();
+        long current;
+        while (otherMax > (current = max.get()) && !max.compareAndSet(current, otherMax)) {
+            // retry until the larger value wins
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long total = count.get();
+        return total == 0 ? 0 : (double) sum.get() / total;
+    }
+
+    public long getPercentile(double percentile) {
+        long total = count.get();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestValueIn(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    public Map<String, Object> summary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", getCount());
+        summary.put("meanMs", toMillis(Math.round(getMean())));
+        summary.put("p50Ms", toMillis(getPercentile(50)));
+        summary.put("p90Ms", toMillis(getPercentile(90)));
+        summary.put("p99Ms", toMillis(getPercentile(99)));
+        summary.put("maxMs", toMillis(getMax()));
+        return summary;
+    }
+
+    public long[] toArray() {
+        long[] values = new long[BUCKETS + 3];
+        for (int i = 0; i < BUCKETS; i++) {
+            values[i] = counts.get(i);
+        }
+        values[BUCKETS] = count.get();
+        values[BUCKETS + 1] = sum.get();
+        values[BUCKETS + 2] = max.get();
+        return values;
+    }
+
+    public static LatencyHistogram fromArray(long[] values) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < BUCKETS; i++) {
+            histogram.counts.set(i, values[i]);
+        }
+        histogram.count.set(values[BUCKETS]);
+        histogram.sum.set(values[BUCKETS + 1]);
+        histogram.max.set(values[BUCKETS + 2]);
+        return histogram;
+    }
+
+    private static double toMillis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - 4;
+        int index = SUB_BUCKETS + (shift - 1) * HALF + (int) (value >>> shift) - HALF;
+        return Math.min(index, BUCKETS - 1);
+    }
+
+    private static long highestValueIn(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / HALF + 1;
+        long subBucket = (index - SUB_BUCKETS) % HALF + HALF;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,56 @@
+package lib.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lib.ShutdownSequence;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * JSON reports written to {@code api.metrics.dir} ({@code target/api-metrics} by default)
+ * when the JVM exits. Each part of the test library registers its own file once.
+ */
+public final class MetricsReport {
+
+    private static final Path DIRECTORY = Paths.get(System.getProperty("api.metrics.dir", "target/api-metrics"));
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private static final Map<String, Supplier<Object>> REPORTS = new ConcurrentHashMap<>();
+
+    static {
+        ShutdownSequence.add(ShutdownSequence.Stage.WRITE_REPORTS, MetricsReport::writeAll);
+    }
+
+    private MetricsReport() {
+    }
+
+    public static void register(String fileName, Supplier<Object> content) {
+        REPORTS.putIfAbsent(fileName, content);
+    }
+
+    public static Path directory() {
+        return DIRECTORY;
+    }
+
+    public static void writeAll() {
+        for (Map.Entry<String, Supplier<Object>> report : REPORTS.entrySet()) {
+            write(report.getKey(), report.getValue().get());
+        }
+    }
+
+    public static Path write(String fileName, Object content) {
+        Path file = DIRECTORY.resolve(fileName);
+        try {
+            Files.createDirectories(DIRECTORY);
+            MAPPER.writeValue(file.toFile(), content);
+        } catch (IOException e) {
+            System.out.println("Can't write metrics report " + file + ": " + e.getMessage());
+        }
+        return file;
+    }
+}
@@ -0,0 +1,65 @@
+package lib.runner;
+
+import lib.filters.CassetteFilter;
+import org.junit.platform.launcher.listeners.TestExecutionSummary;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs every test method as its own task on the given executor, with at most
+ * {@code maxConcurrency} of them in flight. Meant for executors that make a thread
+ * per task cheap, see {@code VirtualThreadTestRunner} in the virtual-threads profile.
+ */
+public final class ConcurrentTestRunner {
+
+    private ConcurrentTestRunner() {
+    }
+
+    public static boolean run(Executor executor, int maxConcurrency, List<TestMethod> tests) throws InterruptedException {
+        if (maxConcurrency > 1) {
+            CassetteFilter.requireSequential("concurrent test execution");
+        }
+        Semaphore permits = new Semaphore(maxConcurrency);
+        CountDownLatch finished = new CountDownLatch(tests.size());
+        AtomicLong succeeded = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        AtomicLong skipped = new AtomicLong();
+        long start = System.nanoTime();
+
+        for (TestMethod test : tests) {
+            permits.acquire();
+            executor.execute(() -> {
+                try {
+                    TestExecutionSummary summary = test.execute();
+                    succeeded.addAndGet(summary.getTestsSucceededCount());
+                    failed.addAndGet(summary.getTestsFailedCount());
+                    skipped.addAndGet(summary.getTestsSkippedCount() + summary.getTestsAbortedCount());
+                    for (TestExecutionSummary.Failure failure : summary.getFailures()) {
+                        System.out.println("FAILED " + test.getName() + " " + failure.getTestIdentifier().getDisplayName()
+                                + ": " + failure.getException());
+                    }
+                } catch (RuntimeException | Error e) {
+                    failed.incrementAndGet();
+                    System.out.println("FAILED " + test.getName() + ": " + e);
+                } finally {
+                    permits.release();
+                    finished.countDown();
+                }
+            });
+        }
+        finished.await();
+
+        System.out.println("Test methods: " + tests.size()
+                + ", tests succeeded: " + succeeded.get()
+                + ", failed: " + failed.get()
+                + ", skipped: " + skipped.get()
+                + ", concurrency cap: " + maxConcurrency
+                + ", wall time: " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+        return failed.get() == 0;
+    }
+}
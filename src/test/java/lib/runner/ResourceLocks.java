@@ -0,0 +1,58 @@
+package lib.runner;
+
+import org.junit.jupiter.api.parallel.ResourceAccessMode;
+import org.junit.jupiter.api.parallel.ResourceLock;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Honours {@code @ResourceLock} for tests started outside of the Jupiter scheduler,
+ * one launcher per test method. Locks are taken in name order so two tests can't
+ * deadlock on the same pair of accounts.
+ */
+final class ResourceLocks {
+
+    private final ConcurrentMap<String, ReadWriteLock> locks = new ConcurrentHashMap<>();
+
+    List<Lock> acquire(Class<?> testClass, Method testMethod) {
+        Map<String, ResourceAccessMode> modes = new TreeMap<>();
+        collect(testClass.getAnnotationsByType(ResourceLock.class), modes);
+        collect(testMethod.getAnnotationsByType(ResourceLock.class), modes);
+
+        List<Lock> acquired = new ArrayList<>();
+        for (Map.Entry<String, ResourceAccessMode> entry : modes.entrySet()) {
+            ReadWriteLock lock = locks.computeIfAbsent(entry.getKey(), name -> new ReentrantReadWriteLock());
+            Lock held = entry.getValue() == ResourceAccessMode.READ ? lock.readLock() : lock.writeLock();
+            held.lock();
+            acquired.add(held);
+        }
+        Collections.reverse(acquired);
+        return acquired;
+    }
+
+    static void release(List<Lock> acquired) {
+        for (Lock lock : acquired) {
+            lock.unlock();
+        }
+    }
+
+    private static void collect(ResourceLock[] annotations, Map<String, ResourceAccessMode> modes) {
+        for (ResourceLock annotation : annotations) {
+            // The stricter mode wins when class and method both lock the same resource
+            modes.merge(annotation.value(), annotation.mode(),
+                    (a, b) -> a == ResourceAccessMode.READ_WRITE || b == ResourceAccessMode.READ_WRITE
+                            ? ResourceAccessMode.READ_WRITE
+                            : ResourceAccessMode.READ);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package lib.runner;
+
+import org.junit.platform.engine.DiscoverySelector;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.LauncherDiscoveryRequest;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+import org.junit.platform.launcher.core.LauncherFactory;
+import org.junit.platform.launcher.listeners.SummaryGeneratingListener;
+import org.junit.platform.launcher.listeners.TestExecutionSummary;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectPackage;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectUniqueId;
+import static org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder.request;
+
+/**
+ * A single {@code @Test} or {@code @ParameterizedTest} method that can be run on its own,
+ * from any thread, through a dedicated JUnit Platform launcher. {@code @ResourceLock}
+ * declarations are honoured across all concurrently running methods.
+ */
+public final class TestMethod {
+
+    private static final ResourceLocks RESOURCE_LOCKS = new ResourceLocks();
+
+    private final String uniqueId;
+    private final Class<?> testClass;
+    private final Method method;
+
+    private TestMethod(String uniqueId, Class<?> testClass, Method method) {
+        this.uniqueId = uniqueId;
+        this.testClass = testClass;
+        this.method = method;
+    }
+
+    public static List<TestMethod> discoverPackages(String... packageNames) {
+        List<DiscoverySelector> selectors = new ArrayList<>();
+        for (String packageName : packageNames) {
+            selectors.add(selectPackage(packageName.trim()));
+        }
+        return discover(selectors);
+    }
+
+    public static List<TestMethod> discoverClasses(Class<?>... testClasses) {
+        List<DiscoverySelector> selectors = new ArrayList<>();
+        for (Class<?> testClass : testClasses) {
+            selectors.add(selectClass(testClass));
+        }
+        return discover(selectors);
+    }
+
+    public String getName() {
+        return testClass.getSimpleName() + "." + method.getName();
+    }
+
+    public Class<?> getTestClass() {
+        return testClass;
+    }
+
+    public TestExecutionSummary execute() {
+        SummaryGeneratingListener listener = new SummaryGeneratingListener();
+        List<Lock> locks = RESOURCE_LOCKS.acquire(testClass, method);
+        try {
+            LauncherFactory.create().execute(requestFor(selectUniqueId(uniqueId)), listener);
+        } finally {
+            ResourceLocks.release(locks);
+        }
+        return listener.getSummary();
+    }
+
+    private static List<TestMethod> discover(List<DiscoverySelector> selectors) {
+        TestPlan testPlan = LauncherFactory.create().discover(requestFor(selectors.toArray(new DiscoverySelector[0])));
+
+        List<TestMethod> methods = new ArrayList<>();
+        for (TestIdentifier root : testPlan.getRoots()) {
+            for (TestIdentifier identifier : testPlan.getDescendants(root)) {
+                if (identifier.getSource().isPresent() && identifier.getSource().get() instanceof MethodSource) {
+                    MethodSource source = (MethodSource) identifier.getSource().get();
+                    methods.add(new TestMethod(identifier.getUniqueId(), source.getJavaClass(), source.getJavaMethod()));
+                }
+            }
+        }
+        return methods;
+    }
+
+    private static LauncherDiscoveryRequest requestFor(DiscoverySelector... selectors) {
+        return request()
+                .selectors(selectors)
+                .configurationParameter("junit.jupiter.extensions.autodetection.enabled", "true")
+                .build();
+    }
+}
@@ -2,6 +2,12 @@ package tests.hello;
 
 import io.restassured.http.Headers;
 import io.restassured.path.json.JsonPath;
+import lib.ApiConfig;
+import lib.AsyncApiCoreRequests;
+import lib.JobPoller;
+import lib.RedirectChain;
+import lib.RedirectTracer;
+import lib.JsonStreamExtractor;
 import org.junit.jupiter.api.Test;
 import io.restassured.RestAssured;
 import io.restassured.response.Response;
@@ -10,6 +16,7 @@ import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.ValueSource;
 
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -18,7 +25,7 @@ public class HelloWorldTest {
     @Test
     public void testHelloWorld() {
         Response response = RestAssured
-                .get("https://playground.learnqa.ru/api/hello")
+                .get(ApiConfig.url("/api/hello"))
                 .andReturn();
         response.prettyPrint();
     }
@@ -26,7 +33,7 @@ public class HelloWorldTest {
     @Test
     public void testGetTextRequest() {
         Response response = RestAssured
-                .get("https://playground.learnqa.ru/api/get_text")
+                .get(ApiConfig.url("/api/get_text"))
                 .andReturn();
 
         response.body().print();
@@ -40,7 +47,7 @@ public class HelloWorldTest {
         Response response = RestAssured
                 .given()
                 .queryParams(params)
-                .get("https://playground.learnqa.ru/api/hello")
+                .get(ApiConfig.url("/api/hello"))
                 .andReturn();
 
         response.prettyPrint();
@@ -54,7 +61,7 @@ public class HelloWorldTest {
         JsonPath response = RestAssured
                 .given()
                 .queryParams(params)
-                .get("https://playground.learnqa.ru/api/hello")
+                .get(ApiConfig.url("/api/hello"))
                 .jsonPath();
 
         String name = response.get("answer2");
@@ -68,7 +75,7 @@ public class HelloWorldTest {
     @Test
     public void testCheckTypeWithGet() {
         Response response = RestAssured
-                .get("https://playground.learnqa.ru/api/check_type")
+                .get(ApiConfig.url("/api/check_type"))
                 .andReturn();
 
         response.prettyPrint();
@@ -80,7 +87,7 @@ public class HelloWorldTest {
                 .given()
                 .queryParam("param1", "value1")
                 .queryParam("param2", "value2")
-                .get("https://playground.learnqa.ru/api/check_type")
+                .get(ApiConfig.url("/api/check_type"))
                 .andReturn();
 
         response.print();
@@ -91,7 +98,7 @@ public class HelloWorldTest {
         Response response = RestAssured
                 .given()
                 .body("param1=value1&param2=value2")
-                .post("https://playground.learnqa.ru/api/check_type")
+                .post(ApiConfig.url("/api/check_type"))
                 .andReturn();
 
         response.print();
@@ -102,7 +109,7 @@ public class HelloWorldTest {
         Response response = RestAssured
                 .given()
                 .body("{\"param1\":\"value1\",\"param2\":\"value2\"}")
-                .post("https://playground.learnqa.ru/api/check_type")
+                .post(ApiConfig.url("/api/check_type"))
                 .andReturn();
 
         response.print();
@@ -116,7 +123,7 @@ public class HelloWorldTest {
         Response response = RestAssured
                 .given()
                 .body(body)
-                .post("https://playground.learnqa.ru/api/check_type")
+                .post(ApiConfig.url("/api/check_type"))
                 .andReturn();
 
         response.print();
@@ -125,7 +132,7 @@ public class HelloWorldTest {
     @Test
     public void testGetStatusCode200() {
         Response response = RestAssured
-                .get("https://playground.learnqa.ru/api/check_type")
+                .get(ApiConfig.url("/api/check_type"))
                 .andReturn();
 
         Integer statusCode = response.getStatusCode();
@@ -135,7 +142,7 @@ public class HelloWorldTest {
     @Test
     public void testGetStatusCode500() {
         Response response = RestAssured
-                .get("https://playground.learnqa.ru/api/get_500")
+                .get(ApiConfig.url("/api/get_500"))
                 .andReturn();
 
         Integer statusCode = response.getStatusCode();
@@ -145,7 +152,7 @@ public class HelloWorldTest {
     @Test
     public void testGetStatusCode404() {
         Response response = RestAssured
-                .get("https://playground.learnqa.ru/api/get_something")
+                .get(ApiConfig.url("/api/get_something"))
                 .andReturn();
 
         Integer statusCode = response.getStatusCode();
@@ -158,7 +165,7 @@ public class HelloWorldTest {
                 .given()
                 .redirects()
                 .follow(false)
-                .get("https://playground.learnqa.ru/api/get_303")
+                .get(ApiConfig.url("/api/get_303"))
                 .andReturn();
 
         Integer statusCode = response.getStatusCode();
@@ -171,7 +178,7 @@ public class HelloWorldTest {
                 .given()
                 .redirects()
                 .follow(true)
-                .get("https://playground.learnqa.ru/api/get_303")
+                .get(ApiConfig.url("/api/get_303"))
                 .andReturn();
 
         Integer statusCode = response.getStatusCode();
@@ -188,7 +195,7 @@ public class HelloWorldTest {
                 .given()
                 .headers(headers)
                 .when()
-                .get("https://playground.learnqa.ru/api/show_all_headers")
+                .get(ApiConfig.url("/api/show_all_headers"))
                 .andReturn();
 
         response.prettyPrint();
@@ -204,7 +211,7 @@ public class HelloWorldTest {
                 .redirects()
                 .follow(false)
                 .when()
-                .get("https://playground.learnqa.ru/api/get_303")
+                .get(ApiConfig.url("/api/get_303"))
                 .andReturn();
 
         String locationHeader = response.getHeader("Location");
@@ -221,7 +228,7 @@ public class HelloWorldTest {
                 .given()
                 .body(data)
                 .when()
-                .post("https://playground.learnqa.ru/api/get_auth_cookie")
+                .post(ApiConfig.url("/api/get_auth_cookie"))
                 .andReturn();
 
         String responseCookie = response.getCookie("auth_cookie");
@@ -238,7 +245,7 @@ public class HelloWorldTest {
                 .given()
                 .body(data)
                 .when()
-                .post("https://playground.learnqa.ru/api/get_auth_cookie")
+                .post(ApiConfig.url("/api/get_auth_cookie"))
                 .andReturn();
 
         String responseCookie = responseForGet.getCookie("auth_cookie");
@@ -254,7 +261,7 @@ public class HelloWorldTest {
                 .body(data)
                 .cookies(cookies)
                 .when()
-                .post("https://playground.learnqa.ru/api/check_auth_cookie")
+                .post(ApiConfig.url("/api/check_auth_cookie"))
                 .andReturn();
 
         responseForCheck.print();
@@ -262,70 +269,46 @@ public class HelloWorldTest {
 
     @Test
     public void testParseSecondMessageTextAndTimestamp() {
-        JsonPath response = RestAssured
-                .get("https://playground.learnqa.ru/api/get_json_homework")
-                .jsonPath();
-
-        List<Map<String, String>> responseList = response.getJsonObject("messages");
-        Map<String, String> secondStringMap = responseList.get(1);
-        System.out.println("The text of the second message is: " + "\"" + secondStringMap.get("message") + "\"");
-        System.out.println("The timestamp of the second message is: " + "\"" + secondStringMap.get("timestamp") + "\"");
+        Map<String, String> secondMessage = JsonStreamExtractor.get(
+                ApiConfig.url("/api/get_json_homework"),
+                "messages[1].message",
+                "messages[1].timestamp"
+        );
+
+        System.out.println("The text of the second message is: " + "\"" + secondMessage.get("messages[1].message") + "\"");
+        System.out.println("The timestamp of the second message is: " + "\"" + secondMessage.get("messages[1].timestamp") + "\"");
     }
 
     @Test
     public void testGetLastRedirectUrl() {
-        Response firstResponse = RestAssured
-                .given()
-                .redirects()
-                .follow(false)
-                .when()
-                .get("https://playground.learnqa.ru/api/long_redirect")
-                .andReturn();
+        RedirectChain chain = RedirectTracer.trace(ApiConfig.url("/api/long_redirect"), 2);
+        assertEquals(2, chain.getHops().size(), "Expected two hops: " + chain);
+        assertTrue(chain.getHop(1).isRedirect(), "Expected the second hop to redirect too: " + chain);
 
-        String firstRedirectUrl = firstResponse.getHeader("Location");
+        String firstRedirectUrl = chain.getHop(0).getLocation();
         System.out.println("The first redirect URL is: " + firstRedirectUrl);
 
-        Response secondResponse = RestAssured
-                .given()
-                .redirects()
-                .follow(false)
-                .when()
-                .get(firstRedirectUrl)
-                .andReturn();
-
-        String lastRedirectUrl = secondResponse.getHeader("Location");
+        String lastRedirectUrl = chain.getHop(1).getLocation();
         System.out.println("The last redirect URL is: " + lastRedirectUrl);
     }
 
     @Test
     public void testGetQuantityOfTheRedirects() {
-        Integer statusCode = 301;
-        String redirectUrl = "https://playground.learnqa.ru/api/long_redirect";
-        Integer quantityOfTheRedirects = 0;
-        while (statusCode != 200) {
-            Response response = RestAssured
-                    .given()
-                    .redirects()
-                    .follow(false)
-                    .when()
-                    .get(redirectUrl)
-                    .andReturn();
-
-            redirectUrl = response.getHeader("Location");
-            statusCode = response.getStatusCode();
-            quantityOfTheRedirects++;
-            System.out.println("Status code is: " + statusCode);
-            if (statusCode != 200) {
-                System.out.println("The redirect URL is: " + redirectUrl);
+        RedirectChain chain = RedirectTracer.trace(ApiConfig.url("/api/long_redirect"));
+        for (RedirectChain.Hop hop : chain.getHops()) {
+            System.out.println("Status code is: " + hop.getStatusCode());
+            if (hop.isRedirect()) {
+                System.out.println("The redirect URL is: " + hop.getLocation());
             }
-
         }
-        System.out.println("Quantity of the Redirects are: " + quantityOfTheRedirects);
+
+        assertTrue(chain.isComplete(), "Redirect chain didn't end with a response: " + chain);
+        System.out.println("Quantity of the Redirects are: " + chain.getHops().size());
     }
 
     @Test
-    public void testGetToken() throws InterruptedException {
-        String requestUrl = "https://playground.learnqa.ru/ajax/api/longtime_job";
+    public void testGetToken() {
+        String requestUrl = ApiConfig.url("/ajax/api/longtime_job");
 
         JsonPath firstResponse = RestAssured
                 .get(requestUrl)
@@ -334,7 +317,7 @@ public class HelloWorldTest {
         String token = firstResponse.getString("token");
         Integer seconds = firstResponse.get("seconds");
         System.out.println("Token is: " + token);
-        System.out.println("Sleep to: " + seconds + " seconds");
+        System.out.println("Wait for: " + seconds + " seconds");
 
         Map<String, String> params = new HashMap<>();
         params.put("token", token);
@@ -349,12 +332,17 @@ public class HelloWorldTest {
         System.out.println("The status is: " + status);
 
         if (status.contains("Job is NOT ready")) {
-            Thread.sleep(seconds * 1000);
-            JsonPath thirdResponse = RestAssured
-                    .given()
-                    .queryParams(params)
-                    .get(requestUrl)
-                    .jsonPath();
+            JsonPath thirdResponse = new JobPoller<>(
+                    () -> AsyncApiCoreRequests.supply(() -> RestAssured
+                            .given()
+                            .queryParams(params)
+                            .get(requestUrl)
+                            .jsonPath()),
+                    response -> !response.getString("status").contains("Job is NOT ready"))
+                    .initialDelay(seconds, TimeUnit.SECONDS)
+                    .timeout(seconds + 60, TimeUnit.SECONDS)
+                    .start()
+                    .join();
 
             status = thirdResponse.get("status");
             System.out.println("The status is: " + status);
@@ -384,7 +372,7 @@ public class HelloWorldTest {
             Response getAuthCookieResponse = RestAssured
                     .given()
                     .body(params)
-                    .post("https://playground.learnqa.ru/ajax/api/get_secret_password_homework")
+                    .post(ApiConfig.url("/ajax/api/get_secret_password_homework"))
                     .andReturn();
 
             String auth_cookie = getAuthCookieResponse.getCookie("auth_cookie");
@@ -395,7 +383,7 @@ public class HelloWorldTest {
             Response checkCookieResponse = RestAssured
                     .given()
                     .cookies(cookies)
-                    .get("https://playground.learnqa.ru/ajax/api/check_auth_cookie")
+                    .get(ApiConfig.url("/ajax/api/check_auth_cookie"))
                     .andReturn();
 
             String responseMessage = checkCookieResponse.asString();
@@ -410,7 +398,7 @@ public class HelloWorldTest {
     @Test
     public void testForStatusCode200() {
         Response response = RestAssured
-                .get("https://playground.learnqa.ru/api/map")
+                .get(ApiConfig.url("/api/map"))
                 .andReturn();
         assertEquals(200, response.statusCode(), "Unexpected status code");
     }
@@ -418,7 +406,7 @@ public class HelloWorldTest {
     @Test
     public void testForStatusCode404() {
         Response response = RestAssured
-                .get("https://playground.learnqa.ru/api/map2")
+                .get(ApiConfig.url("/api/map2"))
                 .andReturn();
         assertEquals(404, response.statusCode(), "Unexpected status code");
     }
@@ -435,7 +423,7 @@ public class HelloWorldTest {
         JsonPath response = RestAssured
                 .given()
                 .queryParams(queryParams)
-                .get("https://playground.learnqa.ru/api/hello")
+                .get(ApiConfig.url("/api/hello"))
                 .jsonPath();
         String answer = response.getString("answer");
         String expectedName = (name.length() > 0) ? name : "someone";
@@ -446,7 +434,7 @@ public class HelloWorldTest {
     @Test
     public void testAssertCookie() {
         Response responseGetCookie = RestAssured
-                .get("https://playground.learnqa.ru/api/homework_cookie")
+                .get(ApiConfig.url("/api/homework_cookie"))
                 .andReturn();
 
         Map<String, String> cookie = responseGetCookie.getCookies();
@@ -474,7 +462,7 @@ public class HelloWorldTest {
         expHeaders.put("Expires", "Thu, 22 Sep 2022 11:01:18 GMT");
 
         Response getHeaderResponse = RestAssured
-                .get("https://playground.learnqa.ru/api/homework_header")
+                .get(ApiConfig.url("/api/homework_header"))
                 .andReturn();
 
         Headers headers = getHeaderResponse.getHeaders();
@@ -503,7 +491,7 @@ public class HelloWorldTest {
         Response response = RestAssured
                 .given()
                 .header("User-Agent", agent)
-                .post("https://playground.learnqa.ru/ajax/api/user_agent_check")
+                .post(ApiConfig.url("/ajax/api/user_agent_check"))
                 .andReturn();
 
         String actualPlatform = response.jsonPath().getString("platform");
@@ -0,0 +1,96 @@
+package tests.lib;
+
+import lib.JobPoller;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JobPollerTest {
+
+    @Test
+    public void testPollsUntilReady() throws Exception {
+        AtomicInteger checks = new AtomicInteger();
+
+        String status = new JobPoller<>(() -> CompletableFuture.completedFuture(checks.incrementAndGet() < 3 ? "Job is NOT ready" : "Job is ready"),
+                "Job is ready"::equals)
+                .interval(1, 10, TimeUnit.MILLISECONDS)
+                .timeout(5, TimeUnit.SECONDS)
+                .start()
+                .get(5, TimeUnit.SECONDS);
+
+        assertEquals("Job is ready", status);
+        assertEquals(3, checks.get());
+    }
+
+    @Test
+    public void testTimesOutWhenNeverReady() {
+        CompletableFuture<String> result = new JobPoller<>(() -> CompletableFuture.completedFuture("Job is NOT ready"),
+                "Job is ready"::equals)
+                .interval(10, 20, TimeUnit.MILLISECONDS)
+                .timeout(200, TimeUnit.MILLISECONDS)
+                .start();
+
+        assertTimedOut(result);
+    }
+
+    @Test
+    public void testTimesOutWhileACheckHangsAndCancelsIt() throws Exception {
+        AtomicReference<CompletableFuture<String>> hanging = new AtomicReference<>();
+
+        CompletableFuture<String> result = new JobPoller<>(() -> {
+            hanging.set(new CompletableFuture<>());
+            return hanging.get();
+        }, "Job is ready"::equals)
+                .timeout(200, TimeUnit.MILLISECONDS)
+                .start();
+
+        assertTimedOut(result);
+        assertTrue(hanging.get().isCancelled(), "The check still in flight wasn't cancelled");
+    }
+
+    @Test
+    public void testFailedCheckFailsThePoll() {
+        IllegalStateException error = new IllegalStateException("No job linked to this token");
+        CompletableFuture<String> failed = new CompletableFuture<>();
+        failed.completeExceptionally(error);
+
+        CompletableFuture<String> result = new JobPoller<>(() -> failed, "Job is ready"::equals)
+                .timeout(5, TimeUnit.SECONDS)
+                .start();
+
+        ExecutionException thrown = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertSame(error, thrown.getCause());
+    }
+
+    @Test
+    public void testCancellingStopsPolling() throws Exception {
+        AtomicInteger checks = new AtomicInteger();
+        CompletableFuture<String> result = new JobPoller<>(() -> {
+            checks.incrementAndGet();
+            return CompletableFuture.completedFuture("Job is NOT ready");
+        }, "Job is ready"::equals)
+                .interval(5, 5, TimeUnit.MILLISECONDS)
+                .timeout(5, TimeUnit.SECONDS)
+                .start();
+
+        Thread.sleep(50);
+        result.cancel(true);
+        int checksWhenCancelled = checks.get();
+        Thread.sleep(100);
+
+        assertTrue(checks.get() <= checksWhenCancelled + 1, "Polling went on after cancelling: " + checks.get() + " checks");
+    }
+
+    private static void assertTimedOut(CompletableFuture<String> result) {
+        // get's own timeout would throw a TimeoutException directly, not wrapped
+        ExecutionException thrown = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertTrue(thrown.getCause() instanceof TimeoutException, String.valueOf(thrown.getCause()));
+    }
+}
@@ -0,0 +1,65 @@
+package tests.lib;
+
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.response.Response;
+import lib.JsonDocument;
+import org.junit.jupiter.api.Test;
+import org.opentest4j.AssertionFailedError;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonDocumentTest {
+
+    private static final String BODY = "{\"user_id\":12,\"id\":\"34\",\"messages\":[{\"message\":\"first\"},{\"message\":\"second\"}],"
+            + "\"a/b\":{\"c~d\":\"escaped\"},\"nothing\":null,\"nested\":{\"list\":[1,2]}}";
+
+    @Test
+    public void testGpathNamesCompileToPointers() {
+        assertEquals("/user_id", JsonDocument.pointer("user_id").toString());
+        assertEquals("/messages/1/message", JsonDocument.pointer("messages[1].message").toString());
+        assertEquals("/nested/list/0", JsonDocument.pointer("nested.list[0]").toString());
+        assertEquals("/a~1b/c~0d", JsonDocument.pointer("a/b.c~d").toString());
+        assertEquals("", JsonDocument.pointer("").toString());
+        assertSame(JsonDocument.pointer("messages[1].message"), JsonDocument.pointer("messages[1].message"));
+    }
+
+    @Test
+    public void testFieldsAreReadThroughTheirPointers() {
+        JsonDocument document = JsonDocument.of(json(BODY));
+
+        assertEquals(12, document.getInt("user_id"));
+        assertEquals(34, document.getInt("id"), "A number sent as a string still reads as an int");
+        assertEquals("second", document.getString("messages[1].message"));
+        assertEquals("escaped", document.getString("a/b.c~d"));
+        assertEquals("[1,2]", document.getString("nested.list"));
+        assertNull(document.getString("nothing"));
+        assertTrue(document.has("nothing"));
+        assertFalse(document.has("messages[2]"));
+        assertThrows(AssertionFailedError.class, () -> document.get("missing"));
+        assertThrows(AssertionFailedError.class, () -> document.getInt("messages"));
+    }
+
+    @Test
+    public void testEachResponseIsParsedOnce() {
+        Response response = json(BODY);
+        Response sameBody = json(BODY);
+
+        assertSame(JsonDocument.of(response), JsonDocument.of(response));
+        assertNotSame(JsonDocument.of(response), JsonDocument.of(sameBody), "Documents are kept per response object");
+    }
+
+    @Test
+    public void testBodyThatIsNotJsonFails() {
+        assertThrows(AssertionFailedError.class, () -> JsonDocument.of(json("not json")));
+        assertThrows(AssertionFailedError.class, () -> JsonDocument.of(json("")));
+    }
+
+    private static Response json(String body) {
+        return new ResponseBuilder()
+                .setStatusCode(200)
+                .setStatusLine("HTTP/1.1 200 OK")
+                .setContentType("application/json")
+                .setBody(body)
+                .build();
+    }
+}
@@ -0,0 +1,77 @@
+package tests.lib;
+
+import lib.JsonStreamExtractor;
+import lib.filters.CassetteFilter;
+import lib.filters.ResponseCacheFilter;
+import lib.filters.SingleFlightFilter;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+public class JsonStreamExtractorTest {
+
+    private static final long PADDING = 64L << 20;
+
+    @Test
+    public void testGetStopsReadingOnceFieldsAreFound() throws Exception {
+        // these keep a copy of the whole body by design
+        assumeFalse(ResponseCacheFilter.isEnabled() || SingleFlightFilter.isEnabled() || CassetteFilter.isEnabled(),
+                "a filter that buffers responses is enabled");
+        AtomicLong written = new AtomicLong();
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            Thread writer = new Thread(() -> serveLargeJson(server, written), "large-json-server");
+            writer.setDaemon(true);
+            writer.start();
+
+            Map<String, String> values = JsonStreamExtractor.get(
+                    "http://127.0.0.1:" + server.getLocalPort() + "/api/large_json", "first", "nested.id");
+
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+            assertEquals("1", values.get("first"));
+            assertEquals("7", values.get("nested.id"));
+            assertFalse(writer.isAlive(), "The connection was left open after the fields were read");
+            assertTrue(written.get() < PADDING / 2,
+                    "The body was read on after the fields were found: " + written.get() + " of " + PADDING + " bytes");
+        }
+    }
+
+    private static void serveLargeJson(ServerSocket server, AtomicLong written) {
+        try (Socket socket = server.accept()) {
+            BufferedReader request = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            String line;
+            while ((line = request.readLine()) != null && !line.isEmpty()) {
+                // the request itself doesn't matter
+            }
+
+            byte[] head = "{\"first\":1,\"nested\":{\"id\":7},\"padding\":\"".getBytes(StandardCharsets.US_ASCII);
+            byte[] tail = "\"}".getBytes(StandardCharsets.US_ASCII);
+            OutputStream out = socket.getOutputStream();
+            out.write(("HTTP/1.1 200 OK\r\nContent-Type: application/json\r\nContent-Length: "
+                    + (head.length + PADDING + tail.length) + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.write(head);
+            byte[] chunk = new byte[8192];
+            Arrays.fill(chunk, (byte) 'x');
+            for (long sent = 0; sent < PADDING; sent += chunk.length) {
+                out.write(chunk);
+                written.addAndGet(chunk.length);
+            }
+            out.write(tail);
+        } catch (IOException e) {
+            // the client hung up, which is what the test expects
+        }
+    }
+}
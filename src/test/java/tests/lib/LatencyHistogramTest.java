@@ -0,0 +1,88 @@
+package tests.lib;
+
+import lib.metrics.LatencyHistogram;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testSmallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 20; micros++) {
+            histogram.record(micros);
+        }
+
+        assertEquals(20, histogram.getCount());
+        assertEquals(10, histogram.getPercentile(50));
+        assertEquals(18, histogram.getPercentile(90));
+        assertEquals(20, histogram.getPercentile(100));
+        assertEquals(10.5, histogram.getMean(), 1e-9);
+    }
+
+    @Test
+    public void testPercentilesNeverUnderstateAndStayWithinABucket() {
+        Random random = new Random(42);
+        long[] values = new long[10_000];
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 1 + (long) (Math.exp(random.nextDouble() * 14));
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double percentile : new double[]{50, 90, 99, 99.9}) {
+            long exact = values[(int) Math.ceil(values.length * percentile / 100) - 1];
+            long reported = histogram.getPercentile(percentile);
+            assertTrue(reported >= exact, "p" + percentile + " " + reported + " is below " + exact);
+            assertTrue(reported <= exact + exact / 16 + 1, "p" + percentile + " " + reported + " is more than a bucket above " + exact);
+        }
+        assertEquals(values[values.length - 1], histogram.getMax());
+    }
+
+    @Test
+    public void testMergeMatchesRecordingEverythingInOne() {
+        Random random = new Random(7);
+        LatencyHistogram all = new LatencyHistogram();
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+        for (int i = 0; i < 5_000; i++) {
+            long micros = random.nextInt(2_000_000);
+            all.record(micros);
+            (i % 3 == 0 ? first : second).record(micros);
+        }
+
+        LatencyHistogram merged = new LatencyHistogram();
+        merged.add(first);
+        merged.add(second);
+
+        assertArrayEquals(all.toArray(), merged.toArray());
+        assertEquals(all.getPercentile(99), merged.getPercentile(99));
+    }
+
+    @Test
+    public void testArrayRoundTrip() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordNanos(1_500_000);
+        histogram.record(250);
+        histogram.record(-5);
+
+        LatencyHistogram copy = LatencyHistogram.fromArray(histogram.toArray());
+
+        assertEquals(3, copy.getCount());
+        assertEquals(1500, copy.getMax());
+        assertEquals(histogram.summary(), copy.summary());
+    }
+
+    @Test
+    public void testEmptyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.getPercentile(99));
+        assertEquals(0, histogram.getMean(), 0);
+    }
+}
@@ -0,0 +1,130 @@
+package tests.lib;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lib.RedirectChain;
+import lib.RedirectTracer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RedirectTracerTest {
+
+    private static HttpServer server;
+    private static String baseUrl;
+
+    @BeforeAll
+    public static void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", RedirectTracerTest::answer);
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterAll
+    public static void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testChainIsFollowedToTheFinalAnswer() {
+        RedirectChain chain = RedirectTracer.trace(baseUrl + "/start");
+
+        assertEquals(RedirectChain.Outcome.COMPLETED, chain.getOutcome(), chain.toString());
+        assertEquals(3, chain.getHops().size());
+        assertEquals(2, chain.getRedirectCount());
+        assertEquals(baseUrl + "/middle", chain.getHop(1).getUrl(), "A relative Location resolves against the hop's URL");
+        assertEquals(baseUrl + "/done", chain.getFinalUrl());
+        assertEquals(200, chain.getFinalStatusCode());
+    }
+
+    @Test
+    public void testLoopStopsAtTheFirstRepeatedUrl() {
+        RedirectChain chain = RedirectTracer.trace(baseUrl + "/loop/a");
+
+        assertEquals(RedirectChain.Outcome.LOOP, chain.getOutcome(), chain.toString());
+        assertEquals(2, chain.getHops().size());
+        assertEquals("/loop/a", chain.getHop(1).getLocation());
+    }
+
+    @Test
+    public void testEndlessChainStopsAtMaxHops() {
+        RedirectChain chain = RedirectTracer.trace(baseUrl + "/step/0", 5);
+
+        assertEquals(RedirectChain.Outcome.TOO_MANY_HOPS, chain.getOutcome(), chain.toString());
+        assertEquals(5, chain.getHops().size());
+        assertEquals(baseUrl + "/step/4", chain.getFinalUrl());
+    }
+
+    @Test
+    public void testMaxHopsMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> RedirectTracer.trace(baseUrl + "/start", 0));
+    }
+
+    @Test
+    public void testRedirectWithoutLocation() {
+        RedirectChain chain = RedirectTracer.trace(baseUrl + "/no-location");
+
+        assertEquals(RedirectChain.Outcome.MISSING_LOCATION, chain.getOutcome(), chain.toString());
+        assertEquals(1, chain.getHops().size());
+    }
+
+    @Test
+    public void testRedirectToAnInvalidLocation() {
+        RedirectChain chain = RedirectTracer.trace(baseUrl + "/invalid-location");
+
+        assertEquals(RedirectChain.Outcome.INVALID_LOCATION, chain.getOutcome(), chain.toString());
+        assertEquals("/a path with spaces", chain.getHop(0).getLocation());
+    }
+
+    @Test
+    public void testHopTimeIsTheCallItself() {
+        RedirectChain chain = RedirectTracer.trace(baseUrl + "/slow");
+
+        assertTrue(chain.getHop(0).getMillis() >= 150, chain.toString());
+        assertTrue(chain.getHop(1).getMillis() < chain.getHop(0).getMillis(), "The slow hop's time leaked into the next: " + chain);
+    }
+
+    private static void answer(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String location = null;
+        int status = 302;
+        if (path.equals("/start")) {
+            location = "middle";
+        } else if (path.equals("/middle")) {
+            location = baseUrl + "/done";
+        } else if (path.equals("/loop/a")) {
+            location = "/loop/b";
+        } else if (path.equals("/loop/b")) {
+            location = "/loop/a";
+        } else if (path.startsWith("/step/")) {
+            location = "/step/" + (Integer.parseInt(path.substring("/step/".length())) + 1);
+        } else if (path.equals("/invalid-location")) {
+            location = "/a path with spaces";
+        } else if (path.equals("/slow")) {
+            sleep(150);
+            location = "/done";
+        } else if (!path.equals("/no-location")) {
+            status = 200;
+        }
+        if (location != null) {
+            exchange.getResponseHeaders().add("Location", location);
+        }
+        exchange.sendResponseHeaders(status, -1);
+        exchange.close();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -2,20 +2,24 @@ package tests.user;
 
 import io.qameta.allure.*;
 import io.restassured.response.Response;
+import lib.ApiConfig;
+import lib.AuthSession;
 import lib.BaseTestCase;
+import lib.SharedAccounts;
 import lib.ApiCoreRequests;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.ResourceAccessMode;
+import org.junit.jupiter.api.parallel.ResourceLock;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
-import java.util.HashMap;
-import java.util.Map;
 import lib.Assertions;
 
 @Epic("Authorisation cases")
 @Feature("Authorisation")
+@ResourceLock(value = SharedAccounts.SYSTEM_USER_2, mode = ResourceAccessMode.READ)
 public class UserAuthTest extends BaseTestCase {
 
     String cookie;
@@ -25,16 +29,11 @@ public class UserAuthTest extends BaseTestCase {
 
     @BeforeEach
     public void loginUser() {
-        Map<String, String> authData = new HashMap<>();
-        authData.put("email", "vinkotov@example.com");
-        authData.put("password", "1234");
+        AuthSession session = this.loginAs("vinkotov@example.com", "1234");
 
-        Response responseGetAuth = apiCoreRequests
-                .makePostRequest("https://playground.learnqa.ru/api/user/login", authData);
-
-        this.cookie = this.getCookie(responseGetAuth, "auth_sid");
-        this.header = this.getHeader(responseGetAuth, "x-csrf-token");
-        this.userIdOnAuth = this.getIntFromJson(responseGetAuth, "user_id");
+        this.cookie = session.getCookie();
+        this.header = session.getHeader();
+        this.userIdOnAuth = session.getUserId();
     }
 
     @Test
@@ -44,7 +43,7 @@ public class UserAuthTest extends BaseTestCase {
     @Story("Successfully authorize user")
     public void testAuthUser() {
         Response responseCheckAuth = apiCoreRequests
-                .makeGetRequest("https://playground.learnqa.ru/api/user/auth",this.header, this.cookie);
+                .makeGetRequest(ApiConfig.url("/api/user/auth"),this.header, this.cookie);
 
         Assertions.assertJsonByName(responseCheckAuth, "user_id", this.userIdOnAuth);
     }
@@ -58,13 +57,13 @@ public class UserAuthTest extends BaseTestCase {
     public void testNegativeAuthUser(String condition) {
         if (condition.equals("cookie")) {
             Response responseForCheck = apiCoreRequests.makeGetRequestWithCookie(
-                    "https://playground.learnqa.ru/api/user/auth",
+                    ApiConfig.url("/api/user/auth"),
                     this.cookie
             );
             Assertions.assertJsonByName(responseForCheck, "user_id", 0);
         } else if (condition.equals("headers")) {
             Response responseForCheck = apiCoreRequests.makeGetRequestWithToken(
-                    "https://playground.learnqa.ru/api/user/auth",
+                    ApiConfig.url("/api/user/auth"),
                     this.header
             );
             Assertions.assertJsonByName(responseForCheck, "user_id", 0);
@@ -2,16 +2,23 @@ package tests.user;
 
 import io.qameta.allure.*;
 import io.restassured.response.Response;
+import lib.ApiConfig;
 import lib.ApiCoreRequests;
 import lib.Assertions;
+import lib.AuthSession;
 import lib.BaseTestCase;
-import lib.DataGenerator;
+import lib.PooledUser;
+import lib.SharedAccounts;
+import lib.UserPool;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.ResourceLock;
 
 import java.util.HashMap;
 import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 
 @Epic("Delete user cases")
 @Feature("Make to delete user")
@@ -24,29 +31,24 @@ public class UserDeleteTest extends BaseTestCase {
     @Owner("Ethan Demidovich")
     @Test
     public void testDeleteEarlyCreatedUserTest() {
-        //GENERATE USER
-        Map<String, String> userData = DataGenerator.getRegistrationData();
-
-        Response responseCreateAuth = apiCoreRequests
-                .makePostRequest("https://playground.learnqa.ru/api/user/", userData);
-
-
-        String userIdOnCreate = responseCreateAuth.jsonPath().getString("id");
+        //LEASE USER
+        PooledUser user = UserPool.lease();
+        String userIdOnCreate = String.valueOf(user.getId());
 
         //LOGIN
         Map<String, String> authData = new HashMap<>();
-        authData.put("email", userData.get("email"));
-        authData.put("password", userData.get("password"));
+        authData.put("email", user.getEmail());
+        authData.put("password", user.getPassword());
 
         Response responseGetAuth = apiCoreRequests
-                .makePostRequest("https://playground.learnqa.ru/api/user/login", authData);
+                .makePostRequest(ApiConfig.url("/api/user/login"), authData);
 
         Assertions.assertJsonByName(responseGetAuth, "user_id", userIdOnCreate);
 
         //DELETE
         Response responseDeleteUser = apiCoreRequests
             .makeDeleteUserRequest(
-                    "https://playground.learnqa.ru/api/user/",
+                    ApiConfig.url("/api/user/"),
                     this.getHeader(responseGetAuth, "x-csrf-token"),
                     this.getCookie(responseGetAuth, "auth_sid"),
                     Integer.parseInt(userIdOnCreate)
@@ -58,7 +60,7 @@ public class UserDeleteTest extends BaseTestCase {
         //TRY TO GET USER DETAILS AFTER DELETE
         Response responseGetUserDetails = apiCoreRequests
                 .makeGetUserDetailsRequest(
-                        "https://playground.learnqa.ru/api/user/",
+                        ApiConfig.url("/api/user/"),
                         this.getHeader(responseGetAuth, "x-csrf-token"),
                         this.getCookie(responseGetAuth, "auth_sid"),
                         Integer.parseInt(userIdOnCreate));
@@ -70,38 +72,35 @@ public class UserDeleteTest extends BaseTestCase {
     @Description("This test check's that system user with ID=2 can't be delete")
     @DisplayName("Test positive, can't be delete system user with ID=2")
     @Owner("Ethan Demidovich")
+    @ResourceLock(SharedAccounts.SYSTEM_USER_2)
     @Test
     public void testTryToDeleteSystemUser() {
         //LOGIN
         int expectedUserId = 2;
-        Map<String, String> authData = new HashMap<>();
-        authData.put("email", "vinkotov@example.com");
-        authData.put("password", "1234");
+        AuthSession session = this.loginAs("vinkotov@example.com", "1234");
 
-        Response responseGetAuth = apiCoreRequests
-                .makePostRequest("https://playground.learnqa.ru/api/user/login", authData);
-
-        Assertions.assertJsonByName(responseGetAuth, "user_id", expectedUserId);
+        assertEquals(expectedUserId, session.getUserId(), "Json value is not equal to expected value");
 
         //DELETE
-        Response responseDeleteUser = apiCoreRequests
+        Response responseDeleteUser = this.withSession("vinkotov@example.com", "1234", true, auth -> apiCoreRequests
                 .makeDeleteUserRequest(
-                        "https://playground.learnqa.ru/api/user/",
-                        this.getHeader(responseGetAuth, "x-csrf-token"),
-                        this.getCookie(responseGetAuth, "auth_sid"),
+                        ApiConfig.url("/api/user/"),
+                        auth.getHeader(),
+                        auth.getCookie(),
                         expectedUserId
-                );
+                ));
 
         Assertions.assertResponseCodeEquals(responseDeleteUser, 400);
         Assertions.assertResponseTextEquals(responseDeleteUser, "Please, do not delete test users with ID 1, 2, 3, 4 or 5.");
 
         //CHECKS THAT SYSTEM USER WITH ID CAN'T BE DELETE.
-        Response responseGetUserDetails = apiCoreRequests
+        Response responseGetUserDetails = this.withSession("vinkotov@example.com", "1234", true, auth -> apiCoreRequests
                 .makeGetUserDetailsRequest(
-                        "https://playground.learnqa.ru/api/user/",
-                        this.getHeader(responseGetAuth, "x-csrf-token"),
-                        this.getCookie(responseGetAuth, "auth_sid"),
-                        expectedUserId);
+                        ApiConfig.url("/api/user/"),
+                        auth.getHeader(),
+                        auth.getCookie(),
+                        expectedUserId
+                ));
 
         Assertions.assertResponseCodeEquals(responseGetUserDetails, 200);
         Assertions.assertJsonHasField(responseGetUserDetails, "id");
@@ -115,38 +114,28 @@ public class UserDeleteTest extends BaseTestCase {
     @Flaky()
     @Test
     public void testTryToDeleteNotTheSameUserAsAuthorized() {
-        //GENERATE FIRST USER
-        Map<String, String> firstUserData = DataGenerator.getRegistrationData();
-
-        Response responseCreateAuthFirstUser = apiCoreRequests
-                .makePostRequest("https://playground.learnqa.ru/api/user/", firstUserData);
-
-
-        String firstUserIdOnCreate = responseCreateAuthFirstUser.jsonPath().getString("id");
-
-        //GENERATE SECOND USER
-        Map<String, String> secondUserData = DataGenerator.getRegistrationData();
-
-        Response responseCreateAuthSecondUser = apiCoreRequests
-                .makePostRequest("https://playground.learnqa.ru/api/user/", secondUserData);
-
+        //LEASE FIRST USER
+        PooledUser firstUser = UserPool.lease();
+        String firstUserIdOnCreate = String.valueOf(firstUser.getId());
 
-        String secondUserIdOnCreate = responseCreateAuthSecondUser.jsonPath().getString("id");
+        //LEASE SECOND USER
+        PooledUser secondUser = UserPool.lease();
+        String secondUserIdOnCreate = String.valueOf(secondUser.getId());
 
         //FIRST USER LOGIN
         Map<String, String> firstUserAuthData = new HashMap<>();
-        firstUserAuthData.put("email", firstUserData.get("email"));
-        firstUserAuthData.put("password", firstUserData.get("password"));
+        firstUserAuthData.put("email", firstUser.getEmail());
+        firstUserAuthData.put("password", firstUser.getPassword());
 
         Response responseGetAuth = apiCoreRequests
-                .makePostRequest("https://playground.learnqa.ru/api/user/login", firstUserAuthData);
+                .makePostRequest(ApiConfig.url("/api/user/login"), firstUserAuthData);
 
         Assertions.assertJsonByName(responseGetAuth, "user_id", firstUserIdOnCreate);
 
         //DELETE
         Response responseDeleteUser = apiCoreRequests
                 .makeDeleteUserRequest(
-                        "https://playground.learnqa.ru/api/user/",
+                        ApiConfig.url("/api/user/"),
                         this.getHeader(responseGetAuth, "x-csrf-token"),
                         this.getCookie(responseGetAuth, "auth_sid"),
                         Integer.parseInt(secondUserIdOnCreate)
@@ -158,7 +147,7 @@ public class UserDeleteTest extends BaseTestCase {
         //TRY TO GET SECOND USER DETAILS AFTER DELETE
         Response responseGetSecondUserDetails = apiCoreRequests
                 .makeGetUserDetailsRequest(
-                        "https://playground.learnqa.ru/api/user/",
+                        ApiConfig.url("/api/user/"),
                         this.getHeader(responseGetAuth, "x-csrf-token"),
                         this.getCookie(responseGetAuth, "auth_sid"),
                         Integer.parseInt(secondUserIdOnCreate));
@@ -169,7 +158,7 @@ public class UserDeleteTest extends BaseTestCase {
 
         Response responseGetFirstUserDetails = apiCoreRequests
                 .makeGetUserDetailsRequest(
-                        "https://playground.learnqa.ru/api/user/",
+                        ApiConfig.url("/api/user/"),
                         this.getHeader(responseGetAuth, "x-csrf-token"),
                         this.getCookie(responseGetAuth, "auth_sid"),
                         Integer.parseInt(firstUserIdOnCreate));
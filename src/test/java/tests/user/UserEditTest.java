@@ -2,15 +2,24 @@ package tests.user;
 
 import io.qameta.allure.*;
 import io.restassured.response.Response;
+import lib.ApiConfig;
 import lib.ApiCoreRequests;
+import lib.AsyncApiCoreRequests;
+import lib.AuthSession;
 import lib.Assertions;
 import lib.BaseTestCase;
-import lib.DataGenerator;
+import lib.PooledUser;
+import lib.SharedAccounts;
+import lib.UserPool;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.ResourceLock;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 @Epic("Edit User details cases")
 @Feature("Edit user details")
@@ -23,22 +32,17 @@ public class UserEditTest extends BaseTestCase {
     @Owner("Ethan Demidovich")
     @Test
     public void testEditJustCreatedTest() {
-        //GENERATE USER
-        Map<String, String> userData = DataGenerator.getRegistrationData();
-
-        Response responseCreateAuth = apiCoreRequests
-                .makePostRequest("https://playground.learnqa.ru/api/user/", userData);
-
-
-        String userId = responseCreateAuth.jsonPath().getString("id");
+        //LEASE USER
+        PooledUser user = UserPool.lease();
+        String userId = String.valueOf(user.getId());
 
         //LOGIN
         Map<String, String> authData = new HashMap<>();
-        authData.put("email", userData.get("email"));
-        authData.put("password", userData.get("password"));
+        authData.put("email", user.getEmail());
+        authData.put("password", user.getPassword());
 
         Response responseGetAuth = apiCoreRequests
-                .makePostRequest("https://playground.learnqa.ru/api/user/login", authData);
+                .makePostRequest(ApiConfig.url("/api/user/login"), authData);
 
         //EDIT
         String newName = "Changed Name";
@@ -47,7 +51,7 @@ public class UserEditTest extends BaseTestCase {
 
         Response responseEditUser = apiCoreRequests
                 .makeAnEditUserDetailsRequest(
-                        "https://playground.learnqa.ru/api/user/",
+                        ApiConfig.url("/api/user/"),
                         this.getHeader(responseGetAuth, "x-csrf-token"),
                         this.getCookie(responseGetAuth, "auth_sid"),
                         editData,
@@ -57,11 +61,12 @@ public class UserEditTest extends BaseTestCase {
         //GET
         Response responseUserData = apiCoreRequests
                 .makeGetUserDetailsRequest(
-                    "https://playground.learnqa.ru/api/user/",
+                    ApiConfig.url("/api/user/"),
                         this.getHeader(responseGetAuth, "x-csrf-token"),
                         this.getCookie(responseGetAuth, "auth_sid"),
                         Integer.parseInt(userId)
                 );
+        UserPool.release(user);
 
         Assertions.assertJsonByName(responseUserData, "firstName", newName);
     }
@@ -69,6 +74,7 @@ public class UserEditTest extends BaseTestCase {
     @Description("This test checks that user detail fields can't be update by not authorized user ")
     @DisplayName("Test negative, can't update user details by not authorized user")
     @Owner("Ethan Demidovich")
+    @ResourceLock(SharedAccounts.USER_46754)
     @Test
     public void testEditUserDetailsByNotAuthorizedUser() {
         int userId = 46754;
@@ -79,7 +85,7 @@ public class UserEditTest extends BaseTestCase {
 
         Response responseEditUser = apiCoreRequests.
                 makeAnEditUserDetailsRequestByNotAuthorizedUser(
-                        "https://playground.learnqa.ru/api/user/",
+                        ApiConfig.url("/api/user/"),
                         editData,
                         userId
                 );
@@ -93,6 +99,8 @@ public class UserEditTest extends BaseTestCase {
     @Severity(SeverityLevel.CRITICAL)
     @Link("https://docs.qameta.io/allure-report/?ysclid=l9mhrs66ts374312462#_junit_5")
     @Issue("BUG-1321")
+    @ResourceLock(SharedAccounts.USER_46754)
+    @ResourceLock(SharedAccounts.USER_46793)
     @Test
     public void testEditUserDetailsByNotTheSameAuthorizedUser() {
         int expectedFirstUserId = 46793;
@@ -103,61 +111,52 @@ public class UserEditTest extends BaseTestCase {
         String secondUserEmail = "learnqa20221020170727@example.com";
         String secondUserPassword = "123";
 
-        //LOGIN BY FIRST USER
-        Map<String, String> firstUserAuthData = new HashMap<>();
-        firstUserAuthData.put("email", firstUserEmail);
-        firstUserAuthData.put("password", firstUserPassword);
+        //LOGIN BY BOTH USERS AT ONCE
+        CompletableFuture<AuthSession> firstUserLogin = AsyncApiCoreRequests
+                .supply(() -> this.loginAs(firstUserEmail, firstUserPassword));
+        CompletableFuture<AuthSession> secondUserLogin = AsyncApiCoreRequests
+                .supply(() -> this.loginAs(secondUserEmail, secondUserPassword));
 
-        Response responseGetAuthFirstUser = apiCoreRequests
-                .makePostRequest("https://playground.learnqa.ru/api/user/login", firstUserAuthData);
-
-        int firstUserId = Integer.parseInt(responseGetAuthFirstUser.jsonPath().getString("user_id"));
-        Assertions.assertJsonByName(responseGetAuthFirstUser, "user_id", expectedFirstUserId);
+        int firstUserId = firstUserLogin.join().getUserId();
+        assertEquals(expectedFirstUserId, firstUserId, "Json value is not equal to expected value");
 
         //EDIT FIELD LASTNAME FOR SECOND USER
         Map<String, String> editData = new HashMap<>();
         editData.put("lastName", lastNameNewValue);
 
-        Response responseEditUser = apiCoreRequests
+        Response responseEditUser = this.withSession(firstUserEmail, firstUserPassword, true, session -> apiCoreRequests
                 .makeAnEditUserDetailsRequest(
-                        "https://playground.learnqa.ru/api/user/",
-                        this.getHeader(responseGetAuthFirstUser, "x-csrf-token"),
-                        this.getCookie(responseGetAuthFirstUser, "auth_sid"),
+                        ApiConfig.url("/api/user/"),
+                        session.getHeader(),
+                        session.getCookie(),
                         editData,
                         expectedSecondUserId
-                );
+                ));
 
         if(responseEditUser.statusCode() == 200) {
             //LOGIN BY SECOND USER
-            Map<String, String> secondUserAuthData = new HashMap<>();
-            secondUserAuthData.put("email", secondUserEmail);
-            secondUserAuthData.put("password", secondUserPassword);
-
-            Response responseGetAuthSecondUser = apiCoreRequests
-                    .makePostRequest("https://playground.learnqa.ru/api/user/login", secondUserAuthData);
-
-            int secondUserId = Integer.parseInt(responseGetAuthSecondUser.jsonPath().getString("user_id"));
-            Assertions.assertJsonByName(responseGetAuthSecondUser, "user_id", expectedSecondUserId);
+            int secondUserId = secondUserLogin.join().getUserId();
+            assertEquals(expectedSecondUserId, secondUserId, "Json value is not equal to expected value");
 
             //CHECKS THAT SECOND USER'S FIELD lastName WAS NOT MODIFIED
-            Response responseGetSecondUserDetails = apiCoreRequests
+            Response responseGetSecondUserDetails = this.withSession(secondUserEmail, secondUserPassword, true, session -> apiCoreRequests
                     .makeGetUserDetailsRequest(
-                            "https://playground.learnqa.ru/api/user/",
-                            this.getHeader(responseGetAuthSecondUser, "x-csrf-token"),
-                            this.getCookie(responseGetAuthSecondUser, "auth_sid"),
+                            ApiConfig.url("/api/user/"),
+                            session.getHeader(),
+                            session.getCookie(),
                             secondUserId
-                    );
+                    ));
 
             Assertions.assertJsonByName(responseGetSecondUserDetails, "lastName", "learnqa");
 
             //CHECKS THAT FIRST USER'S FIELD lastName WAS NOT MODIFIED
-            Response responseGetFirstUserDetails = apiCoreRequests
+            Response responseGetFirstUserDetails = this.withSession(firstUserEmail, firstUserPassword, true, session -> apiCoreRequests
                     .makeGetUserDetailsRequest(
-                            "https://playground.learnqa.ru/api/user/",
-                            this.getHeader(responseGetAuthFirstUser, "x-csrf-token"),
-                            this.getCookie(responseGetAuthFirstUser, "auth_sid"),
+                            ApiConfig.url("/api/user/"),
+                            session.getHeader(),
+                            session.getCookie(),
                             firstUserId
-                    );
+                    ));
 
             Assertions.assertJsonByName(responseGetFirstUserDetails, "lastName", "learnqa");
 
@@ -169,6 +168,7 @@ public class UserEditTest extends BaseTestCase {
     @Description("This test checks, that can't be update user detail fields with too short value")
     @DisplayName("Test negative, can't update user detail fields with too short value")
     @Owner("Ethan Demidovich")
+    @ResourceLock(SharedAccounts.USER_46754)
     @Test
     public void testEditUserEmailFieldWithIncorrectEmailValue() {
         String emailNewValue = "learnqa20221020170727example.com";
@@ -177,28 +177,21 @@ public class UserEditTest extends BaseTestCase {
         int expectedUserId = 46754;
 
         //LOGIN
-        Map<String, String> authData = new HashMap<>();
-        authData.put("email", email);
-        authData.put("password", password);
-
-        Response responseGetAuth = apiCoreRequests
-                .makePostRequest("https://playground.learnqa.ru/api/user/login", authData);
-
-        int userId = Integer.parseInt(responseGetAuth.jsonPath().getString("user_id"));
-        Assertions.assertJsonByName(responseGetAuth, "user_id", expectedUserId);
+        int userId = this.loginAs(email, password).getUserId();
+        assertEquals(expectedUserId, userId, "Json value is not equal to expected value");
 
         //EDIT
         Map<String, String> editData = new HashMap<>();
         editData.put("email", emailNewValue);
 
-        Response responseEditUser = apiCoreRequests
+        Response responseEditUser = this.withSession(email, password, true, session -> apiCoreRequests
                 .makeAnEditUserDetailsRequest(
-                        "https://playground.learnqa.ru/api/user/",
-                        this.getHeader(responseGetAuth, "x-csrf-token"),
-                        this.getCookie(responseGetAuth, "auth_sid"),
+                        ApiConfig.url("/api/user/"),
+                        session.getHeader(),
+                        session.getCookie(),
                         editData,
                         userId
-                );
+                ));
 
         Assertions.assertResponseTextEquals(responseEditUser, "Invalid email format");
     }
@@ -206,6 +199,7 @@ public class UserEditTest extends BaseTestCase {
     @Description("This test checks, that request return error about invalid email format ")
     @DisplayName("Test negative, can't update user email with incorrect email value")
     @Owner("Ethan Demidovich")
+    @ResourceLock(SharedAccounts.USER_46755)
     @Test
     public void testEditUserFirstNameFieldWithTooSmallValue() {
         String firstNameNewValue = "Q";
@@ -214,28 +208,21 @@ public class UserEditTest extends BaseTestCase {
         int expectedUserId = 46755;
 
         //LOGIN
-        Map<String, String> authData = new HashMap<>();
-        authData.put("email", email);
-        authData.put("password", password);
-
-        Response responseGetAuth = apiCoreRequests
-                .makePostRequest("https://playground.learnqa.ru/api/user/login", authData);
-
-        int userId = Integer.parseInt(responseGetAuth.jsonPath().getString("user_id"));
-        Assertions.assertJsonByName(responseGetAuth, "user_id", expectedUserId);
+        int userId = this.loginAs(email, password).getUserId();
+        assertEquals(expectedUserId, userId, "Json value is not equal to expected value");
 
         //EDIT
         Map<String, String> editData = new HashMap<>();
         editData.put("firstName", firstNameNewValue);
 
-        Response responseEditUser = apiCoreRequests
+        Response responseEditUser = this.withSession(email, password, true, session -> apiCoreRequests
                 .makeAnEditUserDetailsRequest(
-                        "https://playground.learnqa.ru/api/user/",
-                        this.getHeader(responseGetAuth, "x-csrf-token"),
-                        this.getCookie(responseGetAuth, "auth_sid"),
+                        ApiConfig.url("/api/user/"),
+                        session.getHeader(),
+                        session.getCookie(),
                         editData,
                         userId
-                );
+                ));
 
         Assertions.assertJsonByName(
                 responseEditUser,
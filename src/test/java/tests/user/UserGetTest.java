@@ -5,17 +5,19 @@ import io.qameta.allure.Epic;
 import io.qameta.allure.Feature;
 import io.qameta.allure.Owner;
 import io.restassured.response.Response;
+import lib.ApiConfig;
 import lib.ApiCoreRequests;
 import lib.Assertions;
 import lib.BaseTestCase;
+import lib.SharedAccounts;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
-
-import java.util.HashMap;
-import java.util.Map;
+import org.junit.jupiter.api.parallel.ResourceAccessMode;
+import org.junit.jupiter.api.parallel.ResourceLock;
 
 @Epic("Get user details cases")
 @Feature("Get user details tests")
+@ResourceLock(value = SharedAccounts.SYSTEM_USER_2, mode = ResourceAccessMode.READ)
 public class UserGetTest extends BaseTestCase {
 
     private final ApiCoreRequests apiCoreRequests = new ApiCoreRequests();
@@ -27,7 +29,7 @@ public class UserGetTest extends BaseTestCase {
         int userId = 2;
 
         Response responseUserData = apiCoreRequests
-                .makeGetUserDetailsRequestOnlyWithUserId("https://playground.learnqa.ru/api/user/", userId);
+                .makeGetUserDetailsRequestOnlyWithUserId(ApiConfig.url("/api/user/"), userId);
 
         Assertions.assertJsonHasField(responseUserData, "username");
         Assertions.assertJsonHasNotField(responseUserData, "firstName");
@@ -40,19 +42,13 @@ public class UserGetTest extends BaseTestCase {
     @Owner("Ethan Demidovich")
     @Test
     public void testGetUserDetailsAuthAsSameUser() {
-        Map<String, String> authData = new HashMap<>();
-        authData.put("email", "vinkotov@example.com");
-        authData.put("password", "1234");
-
-        Response responseGetAuth = apiCoreRequests
-                .makePostRequest("https://playground.learnqa.ru/api/user/login", authData);
-
-        String header = this.getHeader(responseGetAuth, "x-csrf-token");
-        String cookie = this.getCookie(responseGetAuth, "auth_sid");
-        int userId = this.getIntFromJson(responseGetAuth, "user_id");
-
-        Response responseUserData = apiCoreRequests
-                .makeGetUserDetailsRequest("https://playground.learnqa.ru/api/user/", header, cookie, userId);
+        Response responseUserData = this.withSession("vinkotov@example.com", "1234", true, session -> apiCoreRequests
+                .makeGetUserDetailsRequest(
+                        ApiConfig.url("/api/user/"),
+                        session.getHeader(),
+                        session.getCookie(),
+                        session.getUserId()
+                ));
 
         String[] expectedFields = {"username", "firstName", "lastName", "email"};
         Assertions.assertJsonHasFields(responseUserData, expectedFields);
@@ -63,19 +59,10 @@ public class UserGetTest extends BaseTestCase {
     @Owner("Ethan Demidovich")
     @Test
     public void testGetUserDetailsAuthorizedUserWithNotTheSameUserId() {
-        Map<String, String> authData = new HashMap<>();
-        authData.put("email", "vinkotov@example.com");
-        authData.put("password", "1234");
         int userId = 13456;
 
-        Response responseGetAuth = apiCoreRequests
-                .makePostRequest("https://playground.learnqa.ru/api/user/login", authData);
-
-        String header = this.getHeader(responseGetAuth, "x-csrf-token");
-        String cookie = this.getCookie(responseGetAuth, "auth_sid");
-
-        Response responseUserData = apiCoreRequests
-                .makeGetUserDetailsRequest("https://playground.learnqa.ru/api/user/", header, cookie, userId);
+        Response responseUserData = this.withSession("vinkotov@example.com", "1234", true, session -> apiCoreRequests
+                .makeGetUserDetailsRequest(ApiConfig.url("/api/user/"), session.getHeader(), session.getCookie(), userId));
 
         Assertions.assertJsonHasField(responseUserData, "username");
         Assertions.assertJsonHasNotField(responseUserData, "firstName");
@@ -0,0 +1,26 @@
+package lib.runner;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Entry point of {@code mvn test -Pvirtual-threads} (JDK 21+). Each test method runs on its own
+ * virtual thread, {@code tests.concurrency} of them at a time, picked from {@code tests.packages}.
+ */
+public final class VirtualThreadTestRunner {
+
+    private VirtualThreadTestRunner() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int concurrency = Integer.getInteger("tests.concurrency", 256);
+        List<TestMethod> tests = TestMethod.discoverPackages(System.getProperty("tests.packages", "tests").split(","));
+
+        boolean passed;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            passed = ConcurrentTestRunner.run(executor, concurrency, tests);
+        }
+        System.exit(passed ? 0 : 1);
+    }
+}